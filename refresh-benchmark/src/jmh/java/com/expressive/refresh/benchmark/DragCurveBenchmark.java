@@ -0,0 +1,98 @@
+package com.expressive.refresh.benchmark;
+
+import com.expressive.refresh.DefaultDragCurve;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link DefaultDragCurve} with the Math.pow formulas it replaced in
+ * moveSpinner() and updateIndicatorPosition(). Setup fails if the offsets differ at all
+ * or the scales by more than 1e-5, so a run also proves accuracy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DragCurveBenchmark {
+
+    private static final float DRAG_RATE = 0.8f;
+    private static final int SAMPLES = 1024;
+
+    @Param({"252", "336"})
+    public int totalDragDistance;
+
+    private final float[] mOverscrolls = new float[SAMPLES];
+    private final DefaultDragCurve mCurve = new DefaultDragCurve();
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        mCurve.setTotalDragDistance(totalDragDistance);
+        for (int i = 0; i < SAMPLES; i++) {
+            mOverscrolls[i] = i * (totalDragDistance * 4f / SAMPLES);
+        }
+        for (float overscroll : mOverscrolls) {
+            final int legacyOffset = legacyOffset(overscroll, totalDragDistance);
+            final int offset = mCurve.computeOffset(overscroll * DRAG_RATE);
+            if (legacyOffset != offset) {
+                throw new IllegalStateException("Offset mismatch at " + overscroll + ": " + legacyOffset + " vs " + offset);
+            }
+            final float legacyScale = legacyScale(legacyOffset, totalDragDistance);
+            final float scale = mCurve.computeScale(legacyOffset);
+            if (Math.abs(legacyScale - scale) > 1e-5f) {
+                throw new IllegalStateException("Scale mismatch at " + legacyOffset + ": " + legacyScale + " vs " + scale);
+            }
+        }
+    }
+
+    private float nextOverscroll() {
+        final float overscroll = mOverscrolls[mIndex];
+        mIndex = (mIndex + 1) & (SAMPLES - 1);
+        return overscroll;
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        final int offset = legacyOffset(nextOverscroll(), totalDragDistance);
+        blackhole.consume(offset);
+        blackhole.consume(legacyScale(offset, totalDragDistance));
+        blackhole.consume(legacyRotation(offset, totalDragDistance));
+    }
+
+    @Benchmark
+    public void dragCurve(Blackhole blackhole) {
+        final int offset = mCurve.computeOffset(nextOverscroll() * DRAG_RATE);
+        blackhole.consume(offset);
+        blackhole.consume(mCurve.computeScale(offset));
+        blackhole.consume(mCurve.computeRotation(offset));
+    }
+
+    private static int legacyOffset(float overscroll, int totalDragDistance) {
+        float scrollTop = overscroll * DRAG_RATE;
+        float boundedDragPercent = Math.min(1f, Math.abs(scrollTop / totalDragDistance));
+        float extraOS = Math.abs(scrollTop) - totalDragDistance;
+        float tensionSlingshotPercent = Math.max(0, Math.min(extraOS, totalDragDistance * 2) / totalDragDistance);
+        float tensionPercent = (float) ((tensionSlingshotPercent / 4) - Math.pow(tensionSlingshotPercent / 4, 2)) * 2f;
+        float extraMove = totalDragDistance * tensionPercent / 2;
+        return (int) ((totalDragDistance * boundedDragPercent) + extraMove);
+    }
+
+    private static float legacyScale(int offset, int totalDragDistance) {
+        float dragPercent = Math.min(1.5f, (float) offset / totalDragDistance);
+        float rawScale = Math.min(1f, dragPercent / 0.7f);
+        return (float) (Math.pow(rawScale, 2) * (3 - 2 * rawScale));
+    }
+
+    private static float legacyRotation(int offset, int totalDragDistance) {
+        return Math.min(1.5f, (float) offset / totalDragDistance) * 360f;
+    }
+}
@@ -0,0 +1,45 @@
+package com.expressive.refresh.benchmark;
+
+import com.expressive.refresh.GestureTrace;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one {@link GestureTrace#record} call, which the view makes for every touch
+ * sample while tracing is on, compared with a disabled trace. The gc profiler should
+ * report no allocation for either.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GestureTraceBenchmark {
+
+    private GestureTrace mEnabled;
+    private GestureTrace mDisabled;
+    private int mValue;
+
+    @Setup
+    public void setUp() {
+        mEnabled = new GestureTrace(GestureTrace.DEFAULT_CAPACITY);
+        mDisabled = new GestureTrace(GestureTrace.DEFAULT_CAPACITY);
+        mDisabled.setEnabled(false);
+    }
+
+    @Benchmark
+    public void recordEnabled() {
+        mEnabled.record(GestureTrace.EVENT_TOUCH_MOVE, mValue++, mValue, GestureTrace.FLAG_DRAGGING);
+    }
+
+    @Benchmark
+    public void recordDisabled() {
+        mDisabled.record(GestureTrace.EVENT_TOUCH_MOVE, mValue++, mValue, GestureTrace.FLAG_DRAGGING);
+    }
+}
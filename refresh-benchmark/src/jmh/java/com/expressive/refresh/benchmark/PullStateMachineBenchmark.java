@@ -0,0 +1,103 @@
+package com.expressive.refresh.benchmark;
+
+import com.expressive.refresh.PullStateMachine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays scripted gestures through {@link PullStateMachine} the way the view drives it:
+ * one onPull()/moveTo() per input sample, the release decision, and for triggered pulls
+ * the refresh and settle transitions. Run with the gc profiler (enabled in build.gradle)
+ * to see the allocation rate, which is expected to be zero.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PullStateMachineBenchmark {
+
+    private static final int TOTAL_DRAG_DISTANCE = 252;
+    private static final float FLING_TRIGGER_VELOCITY = 2625f;
+    private static final int SETTLE_FRAMES = 12;
+
+    /**
+     * slowPull: 240 samples down to 1.6x the threshold, released without velocity.
+     * flick: 24 samples down to 0.8x the threshold, released at 4000px/s.
+     * backOff: 120 samples to 1.2x the threshold and back to 0.3x, cancelled.
+     */
+    @Param({"slowPull", "flick", "backOff"})
+    public String gesture;
+
+    private float[] mSamples;
+    private float mReleaseVelocity;
+    private PullStateMachine mMachine;
+
+    @Setup
+    public void setUp() {
+        mMachine = new PullStateMachine(TOTAL_DRAG_DISTANCE, FLING_TRIGGER_VELOCITY);
+        final float threshold = TOTAL_DRAG_DISTANCE / PullStateMachine.DRAG_RATE;
+        switch (gesture) {
+            case "flick":
+                mSamples = ramp(24, 0f, threshold * 0.8f);
+                mReleaseVelocity = 4000f;
+                break;
+            case "backOff":
+                final float[] out = ramp(80, 0f, threshold * 1.2f);
+                final float[] back = ramp(40, threshold * 1.2f, threshold * 0.3f);
+                mSamples = new float[out.length + back.length];
+                System.arraycopy(out, 0, mSamples, 0, out.length);
+                System.arraycopy(back, 0, mSamples, out.length, back.length);
+                mReleaseVelocity = -800f;
+                break;
+            default:
+                mSamples = ramp(240, 0f, threshold * 1.6f);
+                mReleaseVelocity = 0f;
+                break;
+        }
+    }
+
+    private static float[] ramp(int count, float from, float to) {
+        final float[] samples = new float[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = from + (to - from) * (i + 1) / count;
+        }
+        return samples;
+    }
+
+    @Benchmark
+    public void gesture(Blackhole blackhole) {
+        final PullStateMachine machine = mMachine;
+        int haptics = 0;
+        for (float overscroll : mSamples) {
+            if (machine.moveTo(machine.onPull(overscroll))) {
+                haptics++;
+            }
+        }
+        final float last = mSamples[mSamples.length - 1];
+        if (machine.onRelease(last, mReleaseVelocity)) {
+            machine.setRefreshing(true);
+            settle(machine, machine.getTotalDragDistance());
+            machine.setRefreshing(false);
+        }
+        settle(machine, 0);
+        machine.onSettled();
+        blackhole.consume(haptics);
+        blackhole.consume(machine.getState());
+    }
+
+    private static void settle(PullStateMachine machine, int target) {
+        final int from = machine.getOffset();
+        for (int frame = 1; frame <= SETTLE_FRAMES; frame++) {
+            machine.moveTo(from + (target - from) * frame / SETTLE_FRAMES);
+        }
+    }
+}
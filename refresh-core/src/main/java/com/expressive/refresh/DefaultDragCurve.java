@@ -0,0 +1,57 @@
+package com.expressive.refresh;
+
+/**
+ * Default {@link DragCurve}: linear up to the trigger distance, followed by a
+ * quadratic slingshot tension for up to twice that distance. Scale follows a
+ * smoothstep over the first 70% of the trigger distance and the indicator
+ * makes one full turn per trigger distance.
+ *
+ * All terms are closed-form polynomials without {@code Math.pow}. Scale and
+ * rotation use a reciprocal precomputed in {@link #setTotalDragDistance(int)};
+ * the offset keeps the original divisions so it matches the formula exactly.
+ */
+public class DefaultDragCurve implements DragCurve {
+
+    private static final float MAX_DRAG_PERCENT = 1.5f;
+    private static final float SCALE_END_PERCENT = 0.7f;
+    private static final float INVERSE_SCALE_END_PERCENT = 1f / SCALE_END_PERCENT;
+
+    private float mTotalDragDistance;
+    private float mInverseTotalDragDistance;
+    private float mMaxSlingshotDistance;
+
+    @Override
+    public void setTotalDragDistance(int totalDragDistance) {
+        mTotalDragDistance = totalDragDistance;
+        mInverseTotalDragDistance = totalDragDistance > 0 ? 1f / totalDragDistance : 0f;
+        mMaxSlingshotDistance = totalDragDistance * 2f;
+    }
+
+    /**
+     * Evaluates the terms in the same order and precision as the original formula, with
+     * the square done as a double multiplication instead of {@code Math.pow}, so offsets
+     * are bit-for-bit identical to it.
+     */
+    @Override
+    public int computeOffset(float dragDistance) {
+        final float boundedDragPercent = Math.min(1f, Math.abs(dragDistance / mTotalDragDistance));
+        final float extraOS = Math.abs(dragDistance) - mTotalDragDistance;
+        final float tensionSlingshotPercent = Math.max(0f, Math.min(extraOS, mMaxSlingshotDistance) / mTotalDragDistance);
+        final float quarter = tensionSlingshotPercent / 4;
+        final float tensionPercent = (float) (quarter - (double) quarter * quarter) * 2f;
+        final float extraMove = mTotalDragDistance * tensionPercent / 2;
+        return (int) ((mTotalDragDistance * boundedDragPercent) + extraMove);
+    }
+
+    @Override
+    public float computeScale(int offset) {
+        final float dragPercent = Math.min(MAX_DRAG_PERCENT, offset * mInverseTotalDragDistance);
+        final float rawScale = Math.min(1f, dragPercent * INVERSE_SCALE_END_PERCENT);
+        return rawScale * rawScale * (3f - 2f * rawScale);
+    }
+
+    @Override
+    public float computeRotation(int offset) {
+        return Math.min(MAX_DRAG_PERCENT, offset * mInverseTotalDragDistance) * 360f;
+    }
+}
@@ -0,0 +1,35 @@
+package com.expressive.refresh;
+
+/**
+ * Maps the rate-adjusted pull distance to the indicator offset, scale and rotation
+ * used by {@code ExpressivePullToRefresh}.
+ *
+ * Implementations are expected to precompute whatever they need in
+ * {@link #setTotalDragDistance(int)} so the per-event methods stay O(1) and
+ * allocation-free; they are called on every drag sample and animation frame.
+ */
+public interface DragCurve {
+
+    /**
+     * Called whenever the distance that triggers a refresh changes.
+     */
+    void setTotalDragDistance(int totalDragDistance);
+
+    /**
+     * @param dragDistance pull distance in pixels, already multiplied by the drag rate
+     * @return indicator offset in pixels
+     */
+    int computeOffset(float dragDistance);
+
+    /**
+     * @param offset current indicator offset in pixels
+     * @return indicator scale while the user is still pulling
+     */
+    float computeScale(int offset);
+
+    /**
+     * @param offset current indicator offset in pixels
+     * @return indicator rotation in degrees while the user is still pulling
+     */
+    float computeRotation(int offset);
+}
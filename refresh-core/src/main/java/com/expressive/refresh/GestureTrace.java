@@ -0,0 +1,182 @@
+package com.expressive.refresh;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fixed-size ring buffer of the most recent pull-to-refresh events, meant to stay enabled
+ * in release builds so a "stuck" report can be diagnosed after the fact.
+ *
+ * Samples are stored in parallel primitive arrays, allocated on the first sample, so
+ * recording is a handful of array stores and never allocates. Recording and
+ * {@link #dump(File, DumpCallback)} must happen on the same thread (the main thread for
+ * {@code ExpressivePullToRefresh}); only the file write runs in the background.
+ *
+ * Dump format (big-endian): int {@link #MAGIC}, short {@link #VERSION}, int sample count,
+ * then per sample, oldest first: long timestamp in {@link System#nanoTime()} nanoseconds,
+ * byte event, int value, int offset, byte flags.
+ */
+public final class GestureTrace {
+
+    public static final int MAGIC = 0x45505454;
+    public static final short VERSION = 1;
+    public static final int DEFAULT_CAPACITY = 128;
+
+    public static final byte EVENT_TOUCH_DOWN = 1;
+    public static final byte EVENT_TOUCH_MOVE = 2;
+    public static final byte EVENT_TOUCH_UP = 3;
+    public static final byte EVENT_TOUCH_CANCEL = 4;
+    public static final byte EVENT_NESTED_SCROLL = 5;
+    public static final byte EVENT_NESTED_STOP = 6;
+    public static final byte EVENT_PULL = 7;
+    public static final byte EVENT_RELEASE = 8;
+    public static final byte EVENT_REFRESH_START = 9;
+    public static final byte EVENT_REFRESH_END = 10;
+    public static final byte EVENT_SETTLED = 11;
+    public static final byte EVENT_LOAD_MORE = 12;
+    public static final byte EVENT_PREPARE = 13;
+
+    public static final byte FLAG_REFRESHING = 1;
+    public static final byte FLAG_DRAGGING = 1 << 1;
+    public static final byte FLAG_NESTED_SCROLL = 1 << 2;
+
+    private static final int HEADER_BYTES = 4 + 2 + 4;
+    private static final int SAMPLE_BYTES = 8 + 1 + 4 + 4 + 1;
+
+    private static ExecutorService sDumpExecutor;
+
+    private final int mCapacity;
+    private boolean mEnabled = true;
+    private long[] mTimes;
+    private byte[] mEvents;
+    private int[] mValues;
+    private int[] mOffsets;
+    private byte[] mFlags;
+    private int mNext;
+    private int mSize;
+
+    public GestureTrace(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        mCapacity = capacity;
+    }
+
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public void clear() {
+        mNext = 0;
+        mSize = 0;
+    }
+
+    /**
+     * @param value event-specific value, for example the touch y or the nested scroll delta
+     * @param offset current indicator offset
+     * @param flags combination of the {@code FLAG_} constants
+     */
+    public void record(byte event, int value, int offset, int flags) {
+        if (!mEnabled) {
+            return;
+        }
+        if (mTimes == null) {
+            mTimes = new long[mCapacity];
+            mEvents = new byte[mCapacity];
+            mValues = new int[mCapacity];
+            mOffsets = new int[mCapacity];
+            mFlags = new byte[mCapacity];
+        }
+        final int index = mNext;
+        mTimes[index] = System.nanoTime();
+        mEvents[index] = event;
+        mValues[index] = value;
+        mOffsets[index] = offset;
+        mFlags[index] = (byte) flags;
+        mNext = index + 1 == mCapacity ? 0 : index + 1;
+        if (mSize < mCapacity) {
+            mSize++;
+        }
+    }
+
+    /**
+     * Copies the buffered samples, oldest first, into a buffer in the dump format.
+     */
+    public ByteBuffer snapshot() {
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + mSize * SAMPLE_BYTES);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(mSize);
+        int index = mSize < mCapacity ? 0 : mNext;
+        for (int i = 0; i < mSize; i++) {
+            buffer.putLong(mTimes[index]);
+            buffer.put(mEvents[index]);
+            buffer.putInt(mValues[index]);
+            buffer.putInt(mOffsets[index]);
+            buffer.put(mFlags[index]);
+            index = index + 1 == mCapacity ? 0 : index + 1;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Snapshots the buffer on the calling thread and writes it to {@code file} on a shared
+     * background thread, replacing any existing content.
+     */
+    public void dump(File file, DumpCallback callback) {
+        final ByteBuffer snapshot = snapshot();
+        getDumpExecutor().execute(() -> {
+            IOException error = null;
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (snapshot.hasRemaining()) {
+                    channel.write(snapshot);
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+            if (callback != null) {
+                callback.onDumpFinished(file, error);
+            }
+        });
+    }
+
+    private static synchronized Executor getDumpExecutor() {
+        if (sDumpExecutor == null) {
+            sDumpExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "GestureTraceDump");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return sDumpExecutor;
+    }
+
+    public interface DumpCallback {
+        /**
+         * Called on the background thread.
+         *
+         * @param error null when the dump was written successfully
+         */
+        void onDumpFinished(File file, IOException error);
+    }
+}
@@ -0,0 +1,115 @@
+package com.expressive.refresh;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket latency histogram that can be recorded into from one thread and
+ * snapshotted from any other without locks.
+ *
+ * Bucket upper bounds grow by a factor of sqrt(2) from 1ms, so any percentile is
+ * reported with at most ~41% relative error up to several hours. Recording does a
+ * binary search over the precomputed bounds and one atomic increment, and never
+ * allocates.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKET_COUNT = 50;
+    private static final long[] UPPER_BOUNDS_NANOS = new long[BUCKET_COUNT];
+
+    static {
+        double bound = 1_000_000d;
+        for (int i = 0; i < BUCKET_COUNT - 1; i++) {
+            UPPER_BOUNDS_NANOS[i] = (long) bound;
+            bound *= Math.sqrt(2);
+        }
+        UPPER_BOUNDS_NANOS[BUCKET_COUNT - 1] = Long.MAX_VALUE;
+    }
+
+    private final AtomicLongArray mCounts = new AtomicLongArray(BUCKET_COUNT);
+
+    public void record(long nanos) {
+        mCounts.incrementAndGet(bucketFor(nanos));
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mCounts.set(i, 0);
+        }
+    }
+
+    /**
+     * Copies the current counts. Buckets are read one by one, so a snapshot taken while
+     * samples are recorded may include some of them and not others, but never a torn count.
+     */
+    public Snapshot snapshot() {
+        final long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = mCounts.get(i);
+        }
+        return new Snapshot(counts);
+    }
+
+    private static int bucketFor(long nanos) {
+        int low = 0;
+        int high = BUCKET_COUNT - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (nanos <= UPPER_BOUNDS_NANOS[mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    public static final class Snapshot {
+
+        private final long[] mCounts;
+        private final long mTotal;
+
+        Snapshot(long[] counts) {
+            mCounts = counts;
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            mTotal = total;
+        }
+
+        public long getCount() {
+            return mTotal;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return upper bound of the bucket holding the requested percentile, or 0 when empty
+         */
+        public long getPercentileNanos(double percentile) {
+            if (mTotal == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(mTotal * percentile / 100d));
+            long seen = 0;
+            for (int i = 0; i < mCounts.length; i++) {
+                seen += mCounts[i];
+                if (seen >= rank) {
+                    return UPPER_BOUNDS_NANOS[i];
+                }
+            }
+            return UPPER_BOUNDS_NANOS[mCounts.length - 1];
+        }
+
+        public int getBucketCount() {
+            return mCounts.length;
+        }
+
+        public long getBucketUpperBoundNanos(int bucket) {
+            return UPPER_BOUNDS_NANOS[bucket];
+        }
+
+        public long getBucketSampleCount(int bucket) {
+            return mCounts[bucket];
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.expressive.refresh;
+
+/**
+ * Platform-independent pull-to-refresh logic behind {@code ExpressivePullToRefresh}:
+ * the drag curve, threshold detection, the trigger decision on release and the
+ * refresh/settle state transitions.
+ *
+ * It has no Android dependencies so it can be tested and benchmarked on a plain JVM.
+ * The view feeds it input and applies the resulting offsets; animations stay in the view.
+ */
+public class PullStateMachine {
+
+    public static final int STATE_IDLE = 0;
+    public static final int STATE_PULLING = 1;
+    public static final int STATE_REFRESHING = 2;
+    public static final int STATE_SETTLING = 3;
+
+    public static final float DRAG_RATE = 0.8f;
+    public static final float FLING_TRIGGER_RATIO = 0.5f;
+
+    private final int mTotalDragDistance;
+    private final float mFlingTriggerVelocity;
+    private DragCurve mDragCurve;
+
+    private int mState = STATE_IDLE;
+    private int mOffset;
+    private boolean mThresholdReached;
+
+    /**
+     * @param totalDragDistance offset in pixels at which a release triggers a refresh
+     * @param flingTriggerVelocity downward release velocity in pixels per second above which
+     *                             a release past {@link #FLING_TRIGGER_RATIO} of the distance triggers
+     */
+    public PullStateMachine(int totalDragDistance, float flingTriggerVelocity) {
+        mTotalDragDistance = totalDragDistance;
+        mFlingTriggerVelocity = flingTriggerVelocity;
+        setDragCurve(new DefaultDragCurve());
+    }
+
+    public void setDragCurve(DragCurve curve) {
+        mDragCurve = curve;
+        mDragCurve.setTotalDragDistance(mTotalDragDistance);
+    }
+
+    public DragCurve getDragCurve() {
+        return mDragCurve;
+    }
+
+    public int getTotalDragDistance() {
+        return mTotalDragDistance;
+    }
+
+    public int getState() {
+        return mState;
+    }
+
+    public int getOffset() {
+        return mOffset;
+    }
+
+    public boolean isRefreshing() {
+        return mState == STATE_REFRESHING;
+    }
+
+    public boolean isThresholdReached() {
+        return mThresholdReached;
+    }
+
+    /**
+     * Maps a raw pull distance, before the drag rate is applied, to an indicator offset
+     * without changing any state.
+     */
+    public int computeOffset(float overscroll) {
+        return mDragCurve.computeOffset(overscroll * DRAG_RATE);
+    }
+
+    /**
+     * Starts or continues a pull and returns the offset the indicator should move to.
+     */
+    public int onPull(float overscroll) {
+        if (mState == STATE_IDLE || mState == STATE_SETTLING) {
+            mState = STATE_PULLING;
+        }
+        return computeOffset(overscroll);
+    }
+
+    /**
+     * Tracks the threshold for an offset sample without moving the indicator.
+     *
+     * @return true exactly when the sample crosses the threshold and haptics should fire
+     */
+    public boolean trackThreshold(int offset) {
+        if (offset >= mTotalDragDistance && !mThresholdReached && mState != STATE_REFRESHING) {
+            mThresholdReached = true;
+            return true;
+        } else if (offset < mTotalDragDistance) {
+            mThresholdReached = false;
+        }
+        return false;
+    }
+
+    /**
+     * Moves the indicator to {@code offset}.
+     *
+     * @return true exactly when the move crosses the threshold and haptics should fire
+     */
+    public boolean moveTo(int offset) {
+        mOffset = offset;
+        return trackThreshold(offset);
+    }
+
+    /**
+     * Ends a pull and decides whether it triggers a refresh. When it does not, the state
+     * becomes {@link #STATE_SETTLING}; when it does, the caller starts the refresh through
+     * {@link #setRefreshing(boolean)}.
+     *
+     * @param velocityY release velocity in pixels per second, positive downward
+     */
+    public boolean onRelease(float overscroll, float velocityY) {
+        final float scrollTop = overscroll * DRAG_RATE;
+        final boolean trigger = scrollTop > mTotalDragDistance
+                || (velocityY > mFlingTriggerVelocity && scrollTop > mTotalDragDistance * FLING_TRIGGER_RATIO);
+        if (!trigger) {
+            mState = STATE_SETTLING;
+        }
+        return trigger;
+    }
+
+    /**
+     * @return false when the machine already was in the requested refreshing state
+     */
+    public boolean setRefreshing(boolean refreshing) {
+        if (isRefreshing() == refreshing) {
+            return false;
+        }
+        mState = refreshing ? STATE_REFRESHING : STATE_SETTLING;
+        return true;
+    }
+
+    /**
+     * Called once the indicator is back at its start position.
+     */
+    public void onSettled() {
+        if (mState == STATE_SETTLING) {
+            mState = STATE_IDLE;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.expressive.refresh;
+
+/**
+ * {@link RefreshMetricsListener} that aggregates refresh cycles into
+ * {@link LatencyHistogram}s. Install one per screen and snapshot the histograms
+ * from any thread, for example to report p50/p99 refresh latency.
+ */
+public class RefreshMetrics implements RefreshMetricsListener {
+
+    private final LatencyHistogram mTouchToThreshold = new LatencyHistogram();
+    private final LatencyHistogram mReleaseToRefresh = new LatencyHistogram();
+    private final LatencyHistogram mTouchToRefresh = new LatencyHistogram();
+    private final LatencyHistogram mRefreshDuration = new LatencyHistogram();
+    private final LatencyHistogram mSettleDuration = new LatencyHistogram();
+
+    @Override
+    public void onRefreshCycle(long touchDownNanos, long thresholdNanos, long releaseNanos,
+            long refreshNanos, long finishNanos, long settledNanos) {
+        record(mTouchToThreshold, touchDownNanos, thresholdNanos);
+        record(mReleaseToRefresh, releaseNanos, refreshNanos);
+        record(mTouchToRefresh, touchDownNanos, refreshNanos);
+        record(mRefreshDuration, refreshNanos, finishNanos);
+        record(mSettleDuration, finishNanos != 0 ? finishNanos : releaseNanos, settledNanos);
+    }
+
+    private static void record(LatencyHistogram histogram, long start, long end) {
+        if (start != 0 && end != 0 && end >= start) {
+            histogram.record(end - start);
+        }
+    }
+
+    /**
+     * Touch down until the pull first crosses the refresh threshold.
+     */
+    public LatencyHistogram getTouchToThreshold() {
+        return mTouchToThreshold;
+    }
+
+    /**
+     * Release until the refresh listener is called.
+     */
+    public LatencyHistogram getReleaseToRefresh() {
+        return mReleaseToRefresh;
+    }
+
+    /**
+     * Touch down until the refresh listener is called.
+     */
+    public LatencyHistogram getTouchToRefresh() {
+        return mTouchToRefresh;
+    }
+
+    /**
+     * Refresh listener call until the refresh ends.
+     */
+    public LatencyHistogram getRefreshDuration() {
+        return mRefreshDuration;
+    }
+
+    /**
+     * End of the refresh (or release, when no refresh was triggered) until the indicator has settled.
+     */
+    public LatencyHistogram getSettleDuration() {
+        return mSettleDuration;
+    }
+}
@@ -0,0 +1,16 @@
+package com.expressive.refresh;
+
+/**
+ * Receives the timeline of one pull-to-refresh cycle of {@code ExpressivePullToRefresh}.
+ *
+ * All timestamps come from {@link System#nanoTime()}. A phase that did not happen in the
+ * cycle is reported as 0, for example the touch timestamps of a programmatic refresh or
+ * the refresh timestamps of a pull released below the threshold. Called on the main
+ * thread once the indicator has settled back to its start position, or when a new touch
+ * catches the indicator before it settles, in which case {@code settledNanos} is 0.
+ */
+public interface RefreshMetricsListener {
+
+    void onRefreshCycle(long touchDownNanos, long thresholdNanos, long releaseNanos,
+            long refreshNanos, long finishNanos, long settledNanos);
+}
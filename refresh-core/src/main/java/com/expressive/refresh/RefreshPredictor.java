@@ -0,0 +1,156 @@
+package com.expressive.refresh;
+
+/**
+ * Predicts during a pull whether its release will trigger a refresh, so that work such as
+ * warming a connection or starting the fetch can begin before the finger lifts.
+ *
+ * It is fed the linear pull distance (the raw overscroll times {@link PullStateMachine#DRAG_RATE},
+ * the value the release decision compares against the trigger distance) and keeps a smoothed
+ * estimate of its velocity. A pull is predicted to trigger once it has covered
+ * {@link #setMinProgress(float) a minimum fraction} of the trigger distance and would reach the
+ * trigger distance within {@link #setLookaheadNanos(long) the lookahead} at its current speed.
+ *
+ * Each prediction is scored on release: a hit when the pull did trigger, with the time between
+ * the prediction and the release counted as saved, or a miss when it did not. Not thread-safe;
+ * the view drives it from the main thread.
+ */
+public class RefreshPredictor {
+
+    public static final long DEFAULT_LOOKAHEAD_NANOS = 120_000_000L;
+    public static final float DEFAULT_MIN_PROGRESS = 0.4f;
+
+    private static final float VELOCITY_SMOOTHING = 0.5f;
+
+    private final float mTriggerDistance;
+    private long mLookaheadNanos = DEFAULT_LOOKAHEAD_NANOS;
+    private float mMinProgress = DEFAULT_MIN_PROGRESS;
+
+    private boolean mHasSample;
+    private float mLastDistance;
+    private long mLastNanos;
+    private float mVelocity;
+    private boolean mPredicted;
+    private long mPredictedNanos;
+
+    private int mHitCount;
+    private int mMissCount;
+    private long mTimeSavedNanos;
+
+    /**
+     * @param triggerDistance pull distance in pixels at which a release triggers a refresh
+     */
+    public RefreshPredictor(float triggerDistance) {
+        mTriggerDistance = triggerDistance;
+    }
+
+    public void setLookaheadNanos(long lookaheadNanos) {
+        mLookaheadNanos = lookaheadNanos;
+    }
+
+    public long getLookaheadNanos() {
+        return mLookaheadNanos;
+    }
+
+    /**
+     * Fraction of the trigger distance a pull must cover before it can be predicted, which
+     * keeps short flicks at the start of a scroll from firing predictions.
+     */
+    public void setMinProgress(float minProgress) {
+        mMinProgress = minProgress;
+    }
+
+    public float getMinProgress() {
+        return mMinProgress;
+    }
+
+    /**
+     * Forgets the current gesture without scoring it.
+     */
+    public void onGestureStart() {
+        mHasSample = false;
+        mVelocity = 0;
+        mPredicted = false;
+    }
+
+    /**
+     * @param distance linear pull distance in pixels
+     * @return true exactly when this sample makes the first prediction of the gesture
+     */
+    public boolean onPull(float distance, long timeNanos) {
+        if (mHasSample && timeNanos > mLastNanos) {
+            final float velocity = (distance - mLastDistance) / (timeNanos - mLastNanos);
+            mVelocity += (velocity - mVelocity) * VELOCITY_SMOOTHING;
+        }
+        mHasSample = true;
+        mLastDistance = distance;
+        mLastNanos = timeNanos;
+
+        if (mPredicted || distance < mTriggerDistance * mMinProgress) {
+            return false;
+        }
+        if (distance >= mTriggerDistance || distance + mVelocity * mLookaheadNanos >= mTriggerDistance) {
+            mPredicted = true;
+            mPredictedNanos = timeNanos;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Scores the gesture and forgets it.
+     *
+     * @param triggered whether the release triggered a refresh
+     * @return true when the gesture had been predicted, meaning speculative work was started
+     *         and must now be confirmed or cancelled
+     */
+    public boolean onRelease(boolean triggered, long timeNanos) {
+        final boolean predicted = mPredicted;
+        if (predicted) {
+            if (triggered) {
+                mHitCount++;
+                mTimeSavedNanos += Math.max(0, timeNanos - mPredictedNanos);
+            } else {
+                mMissCount++;
+            }
+        }
+        onGestureStart();
+        return predicted;
+    }
+
+    public int getPredictionCount() {
+        return mHitCount + mMissCount;
+    }
+
+    public int getHitCount() {
+        return mHitCount;
+    }
+
+    public int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return the fraction of predictions that triggered, or 0 before the first prediction
+     */
+    public float getHitRate() {
+        final int predictions = getPredictionCount();
+        return predictions == 0 ? 0f : (float) mHitCount / predictions;
+    }
+
+    /**
+     * @return total time between prediction and release over all hits
+     */
+    public long getTimeSavedNanos() {
+        return mTimeSavedNanos;
+    }
+
+    public long getAverageTimeSavedNanos() {
+        return mHitCount == 0 ? 0 : mTimeSavedNanos / mHitCount;
+    }
+
+    public void resetStats() {
+        mHitCount = 0;
+        mMissCount = 0;
+        mTimeSavedNanos = 0;
+    }
+}
@@ -0,0 +1,182 @@
+package com.expressive.refresh;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.webkit.WebView;
+import android.widget.AbsListView;
+import android.widget.ScrollView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ScrollingView;
+import androidx.core.widget.NestedScrollView;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Built-in {@link ExpressivePullToRefresh.OnChildScrollUpCallback} strategies.
+ *
+ * Each strategy answers "can the content still scroll up" from the scroller's own
+ * state (first visible position, scrollY) instead of computing scroll offsets
+ * through {@link View#canScrollVertically(int)}.
+ */
+public final class ChildScrollUpCallbacks {
+
+    private static final ExpressivePullToRefresh.OnChildScrollUpCallback RECYCLER_VIEW =
+            (parent, child) -> child instanceof RecyclerView && canRecyclerViewScrollUp((RecyclerView) child);
+
+    private static final ExpressivePullToRefresh.OnChildScrollUpCallback ABS_LIST_VIEW =
+            (parent, child) -> child instanceof AbsListView && canListScrollUp((AbsListView) child);
+
+    private static final ExpressivePullToRefresh.OnChildScrollUpCallback SCROLL_Y =
+            (parent, child) -> child != null && child.getScrollY() > 0;
+
+    private ChildScrollUpCallbacks() {
+    }
+
+    /**
+     * Uses the {@link LinearLayoutManager} first visible position, falling back to
+     * {@link View#canScrollVertically(int)} for other layout managers.
+     */
+    @NonNull
+    public static ExpressivePullToRefresh.OnChildScrollUpCallback recyclerView() {
+        return RECYCLER_VIEW;
+    }
+
+    /**
+     * Uses the first visible position and the top of the first child of a ListView or GridView.
+     */
+    @NonNull
+    public static ExpressivePullToRefresh.OnChildScrollUpCallback absListView() {
+        return ABS_LIST_VIEW;
+    }
+
+    @NonNull
+    public static ExpressivePullToRefresh.OnChildScrollUpCallback webView() {
+        return SCROLL_Y;
+    }
+
+    @NonNull
+    public static ExpressivePullToRefresh.OnChildScrollUpCallback nestedScrollView() {
+        return SCROLL_Y;
+    }
+
+    /**
+     * Finds the real scrolling descendant of the target once (for targets that wrap
+     * the scroller in other layouts) and keeps using it until it is detached from the
+     * target. A target without a scroller is also remembered, and is only searched again
+     * once the target changes. Each call returns a new callback, since the result is
+     * cached per view.
+     */
+    @NonNull
+    public static ExpressivePullToRefresh.OnChildScrollUpCallback autoDiscover() {
+        return new AutoDiscoverCallback();
+    }
+
+    /**
+     * Picks the fast check matching the type of {@code view}.
+     */
+    public static boolean canScrollUp(@NonNull View view) {
+        if (view instanceof RecyclerView) {
+            return canRecyclerViewScrollUp((RecyclerView) view);
+        }
+        if (view instanceof AbsListView) {
+            return canListScrollUp((AbsListView) view);
+        }
+        if (view instanceof WebView || view instanceof NestedScrollView || view instanceof ScrollView) {
+            return view.getScrollY() > 0;
+        }
+        return view.canScrollVertically(-1);
+    }
+
+    private static boolean canRecyclerViewScrollUp(RecyclerView recyclerView) {
+        final RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            final LinearLayoutManager linear = (LinearLayoutManager) layoutManager;
+            if (linear.getOrientation() == RecyclerView.VERTICAL && !linear.getReverseLayout()) {
+                if (linear.getChildCount() == 0) {
+                    return false;
+                }
+                final int first = linear.findFirstVisibleItemPosition();
+                if (first != 0) {
+                    return first > 0;
+                }
+                final View firstView = linear.findViewByPosition(0);
+                if (firstView == null) {
+                    return false;
+                }
+                // The decorated top excludes the item's margin, which is scrolled too.
+                final int topMargin = ((RecyclerView.LayoutParams) firstView.getLayoutParams()).topMargin;
+                return linear.getDecoratedTop(firstView) - topMargin < linear.getPaddingTop();
+            }
+        }
+        return recyclerView.canScrollVertically(-1);
+    }
+
+    private static boolean canListScrollUp(AbsListView list) {
+        if (list.getChildCount() == 0) {
+            return false;
+        }
+        return list.getFirstVisiblePosition() > 0 || list.getChildAt(0).getTop() < list.getListPaddingTop();
+    }
+
+    private static boolean isScroller(View view) {
+        return view instanceof ScrollingView
+                || view instanceof AbsListView
+                || view instanceof WebView
+                || view instanceof ScrollView;
+    }
+
+    @Nullable
+    private static View findScroller(View view) {
+        if (view.getVisibility() != View.VISIBLE) {
+            return null;
+        }
+        if (isScroller(view)) {
+            return view;
+        }
+        if (view instanceof ViewGroup) {
+            final ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                final View found = findScroller(group.getChildAt(i));
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isDescendant(View view, View ancestor) {
+        if (view == ancestor) {
+            return true;
+        }
+        ViewParent parent = view.getParent();
+        while (parent instanceof View) {
+            if (parent == ancestor) {
+                return true;
+            }
+            parent = parent.getParent();
+        }
+        return false;
+    }
+
+    private static final class AutoDiscoverCallback implements ExpressivePullToRefresh.OnChildScrollUpCallback {
+
+        private View mRoot;
+        private View mScroller;
+
+        @Override
+        public boolean canChildScrollUp(@NonNull ExpressivePullToRefresh parent, @Nullable View child) {
+            if (child == null) {
+                return false;
+            }
+            if (mRoot != child || (mScroller != null && !isDescendant(mScroller, child))) {
+                mRoot = child;
+                mScroller = findScroller(child);
+            }
+            return canScrollUp(mScroller != null ? mScroller : child);
+        }
+    }
+}
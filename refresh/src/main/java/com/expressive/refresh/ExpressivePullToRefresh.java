@@ -4,28 +4,46 @@ import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
 import android.animation.ValueAnimator;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.drawable.Animatable;
+import android.graphics.drawable.AnimatedVectorDrawable;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
 import android.util.AttributeSet;
+import android.view.Display;
+import android.view.Choreographer;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewConfiguration;
+import android.view.ViewTreeObserver;
 import android.view.animation.DecelerateInterpolator;
 import android.view.animation.Interpolator;
+import android.widget.AdapterView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.core.view.NestedScrollingChild3;
 import androidx.core.view.NestedScrollingChildHelper;
 import androidx.core.view.NestedScrollingParent3;
 import androidx.core.view.NestedScrollingParentHelper;
+import androidx.core.view.ScrollingView;
 import androidx.core.view.ViewCompat;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.color.MaterialColors;
 import com.google.android.material.loadingindicator.LoadingIndicator;
+import com.google.android.material.loadingindicator.LoadingIndicatorDrawable;
+import com.google.android.material.loadingindicator.LoadingIndicatorSpec;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ExpressivePullToRefresh - Material Design 3 Expressive pull-to-refresh
@@ -40,43 +58,138 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
     public static final int STYLE_UNCONTAINED = 0;
     public static final int STYLE_CONTAINED = 1;
 
+    public static final int CONTENT_TRANSLATION_NONE = 0;
+    public static final int CONTENT_TRANSLATION_FOLLOW = 1;
+
+    public static final int INDICATOR_RENDER_VIEW = 0;
+    public static final int INDICATOR_RENDER_DRAWABLE = 1;
+    public static final int INDICATOR_RENDER_RENDER_THREAD = 2;
+
     private static final int ANIMATE_TO_TRIGGER_DURATION = 200;
     private static final int ANIMATE_TO_START_DURATION = 200;
-    private static final float DRAG_RATE = 0.8f;
     private static final float DECELERATE_INTERPOLATION_FACTOR = 2f;
+    private static final int MIN_SETTLE_DURATION = 80;
+    private static final int FLING_TRIGGER_VELOCITY = 1000;
+    private static final float FLING_BOUNCE_RATIO = 0.5f;
+    private static final float FLING_BOUNCE_TIME = 0.05f;
+    private static final long DEFAULT_REFRESH_TIMEOUT = 30000;
+    private static final int UP_TO_DATE_HOLD_DURATION = 400;
+    private static final int DEGRADED_FRAME_INTERVAL = 100;
+    private static final float DEGRADED_ROTATION_STEP = 36f;
+    private static final float DEGRADED_ARC_SWEEP = 270f;
 
     private static final int DEFAULT_CIRCLE_TARGET = 96;
     private static final int CIRCLE_DIAMETER = 48;
 
+    // Immutable or main-thread-only state shared by every instance, so that hundreds of idle
+    // instances in a list cost little more than their own fields.
+    private static final Interpolator DECELERATE_INTERPOLATOR = new DecelerateInterpolator(DECELERATE_INTERPOLATION_FACTOR);
+    private static final Rect sVisibleRect = new Rect();
+
     private View mTarget;
     private LoadingIndicator mLoadingIndicator;
+    private LoadingIndicator[] mIndicatorCache;
+    private LoadingIndicator mLoadMoreIndicator;
+    private LoadingIndicatorDrawable mIndicatorDrawable;
+    private int mIndicatorRenderMode = INDICATOR_RENDER_VIEW;
+    private float mIndicatorScale = 1f;
+    private float mIndicatorRotation;
+    // Area of the drawable indicator as last invalidated, in this view's coordinates.
+    private Rect mIndicatorDirtyRect;
+    private AnimatedVectorDrawable mSpinnerDrawable;
+    private boolean mSpinnerActive;
 
     private int mTouchSlop;
-    private int mTotalDragDistance;
     private int mCircleDiameter;
-    private int mCurrentTargetOffsetTop;
     private int mOriginalOffsetTop;
 
     private float mInitialMotionY;
     private float mInitialMotionX;
     private boolean mIsBeingDragged;
     private int mActivePointerId = -1;
-    private boolean mThresholdReached;
 
-    private boolean mRefreshing;
+    private VelocityTracker mVelocityTracker;
+    private int mMaximumFlingVelocity;
+    private float mReleaseVelocity;
+    private float mNestedReleaseVelocity;
+    private float mNestedFlingVelocity;
+    private boolean mFlingBounced;
+
+    private boolean mCoalesceInput;
+    private boolean mCoalescePending;
+    private int mPendingOffset;
+    private Choreographer.FrameCallback mCoalesceFrameCallback;
+
     private boolean mNotify;
     private OnRefreshListener mListener;
-
-    private final Interpolator mDecelerateInterpolator;
-    private int[] mColors;
+    private OnChildScrollUpCallback mChildScrollUpCallback;
+    private OnAsyncRefreshListener mAsyncListener;
+    private CompletableFuture<?> mInFlightRefresh;
+    private long mRefreshTimeout = DEFAULT_REFRESH_TIMEOUT;
+    private Runnable mRefreshTimeoutRunnable;
+    private RefreshPolicy mRefreshPolicy;
+    private RefreshCoordinator mRefreshCoordinator;
+    private OnRefreshPrepareListener mPrepareListener;
+    private RefreshPredictor mRefreshPredictor;
+
+    private OnLoadMoreListener mLoadMoreListener;
+    private boolean mLoadingMore;
+    private int mLoadMorePrefetchDistance;
+    // Item count and scroll range of the target when load-more last fired, so a page that
+    // appended nothing does not fire it again on every scroll.
+    private boolean mLoadMoreLatched;
+    private int mLoadMoreItemCount;
+    private int mLoadMoreScrollRange;
+    private boolean mScrollChangedListenerRegistered;
+    private ViewTreeObserver.OnScrollChangedListener mScrollChangedListener;
+
+    private boolean mAggregatedVisible = true;
+    // Cleared first thing in onDetachedFromWindow(), where isAttachedToWindow() is still true.
+    private boolean mAttached;
+    private boolean mIndicatorPaused;
+    private int mIndicatorPauseCount;
+    private int mHiddenFrameCount;
+
+    private boolean mAdaptiveQuality;
+    private boolean mDegradedQuality;
+    private boolean mDegradedSpinnerActive;
+    private float mDegradedRotation;
+    private Paint mDegradedPaint;
+    private int mDegradedContainerColor;
+    private int mDegradedArcColor;
+    private boolean mQualityMonitored;
+    private Runnable mDegradedFrameRunnable;
+
+    private boolean mHighFrameRateRequested;
+
+    private RefreshMetricsListener mMetricsListener;
+    private long mTouchDownNanos;
+    private long mThresholdNanos;
+    private long mReleaseNanos;
+    private long mRefreshNanos;
+    private long mFinishNanos;
+
+    private FrameStatsListener mFrameStatsListener;
+    private PullFrameMonitor mFrameMonitor;
+    private GestureRecorder mGestureRecorder;
+    private GestureTrace mGestureTrace;
+    private Runnable mUpToDateRunnable;
+
+    private final PullStateMachine mPullState;
     private int mCurrentStyle;
+    private int mContentTranslationMode = CONTENT_TRANSLATION_NONE;
     private ValueAnimator mOffsetAnimator;
-    private ValueAnimator mRefreshAnimator;
-
-    private final NestedScrollingParentHelper mNestedScrollingParentHelper;
-    private final NestedScrollingChildHelper mNestedScrollingChildHelper;
-    private final int[] mParentScrollConsumed = new int[2];
-    private final int[] mParentOffsetInWindow = new int[2];
+    private int mAnimateFrom;
+    private int mAnimateTo;
+    private boolean mAnimatingToStart;
+    private boolean mAnimationCanceled;
+    private boolean mBounceBack;
+
+    private NestedScrollingParentHelper mNestedScrollingParentHelper;
+    private NestedScrollingChildHelper mNestedScrollingChildHelper;
+    private boolean mNestedScrollingDisabled;
+    private int[] mParentScrollConsumed;
+    private int[] mNestedScrollConsumed;
     private boolean mNestedScrollInProgress;
     private float mTotalUnconsumed;
 
@@ -87,11 +200,14 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
     public ExpressivePullToRefresh(@NonNull Context context, @Nullable AttributeSet attrs) {
         super(context, attrs);
 
-        mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
-        mDecelerateInterpolator = new DecelerateInterpolator(DECELERATE_INTERPOLATION_FACTOR);
+        final ViewConfiguration configuration = ViewConfiguration.get(context);
+        mTouchSlop = configuration.getScaledTouchSlop();
+        mMaximumFlingVelocity = configuration.getScaledMaximumFlingVelocity();
 
         mCircleDiameter = (int) (CIRCLE_DIAMETER * getResources().getDisplayMetrics().density);
-        mTotalDragDistance = (int) (DEFAULT_CIRCLE_TARGET * getResources().getDisplayMetrics().density);
+        mPullState = new PullStateMachine(
+                (int) (DEFAULT_CIRCLE_TARGET * getResources().getDisplayMetrics().density),
+                FLING_TRIGGER_VELOCITY * getResources().getDisplayMetrics().density);
 
         mCurrentStyle = STYLE_CONTAINED;
         
@@ -100,59 +216,164 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
             mCurrentStyle = a.getInteger(R.styleable.RefreshView_type, STYLE_CONTAINED);
             a.recycle();
         }
-        
-        updateColors(context);
-        setupProgressIndicator(mCurrentStyle);
 
         mOriginalOffsetTop = 0;
-        mCurrentTargetOffsetTop = mOriginalOffsetTop;
 
         setWillNotDraw(false);
         setChildrenDrawingOrderEnabled(true);
+    }
 
-        mNestedScrollingParentHelper = new NestedScrollingParentHelper(this);
-        mNestedScrollingChildHelper = new NestedScrollingChildHelper(this);
-        setNestedScrollingEnabled(true);
+    /**
+     * Colors are resolved from the current theme when an indicator is built, and for the
+     * degraded spinner when it starts or the theme changes, so a day/night or dynamic color
+     * change is picked up.
+     */
+    private int getIndicatorColor() {
+        return mCurrentStyle == STYLE_CONTAINED
+                ? MaterialColors.getColor(getContext(), com.google.android.material.R.attr.colorOnPrimaryContainer, 0xFF21005D)
+                : MaterialColors.getColor(getContext(), androidx.appcompat.R.attr.colorPrimary, 0xFF6750A4);
     }
 
-    private void updateColors(Context context) {
-        if (mCurrentStyle == STYLE_CONTAINED) {
-            mColors = new int[]{
-                MaterialColors.getColor(context, com.google.android.material.R.attr.colorOnPrimaryContainer, 0xFF21005D)
-            };
-        } else {
-            mColors = new int[]{
-                MaterialColors.getColor(context, androidx.appcompat.R.attr.colorPrimary, 0xFF6750A4)
-            };
+    /**
+     * Creates the indicator for the current style on first pull or first refresh.
+     * Only the requested style is inflated, and each style is inflated at most once
+     * per instance so toggling styles reuses the already built indicator.
+     */
+    private void ensureIndicator() {
+        if (mLoadingIndicator != null || mIndicatorDrawable != null) {
+            return;
+        }
+        if (mIndicatorRenderMode != INDICATOR_RENDER_VIEW) {
+            ensureIndicatorDrawable();
+            return;
+        }
+        final boolean contained = mCurrentStyle == STYLE_CONTAINED;
+        final int slot = contained ? STYLE_CONTAINED : STYLE_UNCONTAINED;
+        if (mIndicatorCache == null) {
+            mIndicatorCache = new LoadingIndicator[2];
+        }
+        LoadingIndicator indicator = mIndicatorCache[slot];
+        if (indicator == null) {
+            int layout = contained
+                    ? R.layout.m3_loading_indicator_contained
+                    : R.layout.m3_loading_indicator_uncontained;
+            indicator = (LoadingIndicator) LayoutInflater.from(getContext()).inflate(layout, this, false);
+            indicator.setIndicatorColor(getIndicatorColor());
+            mIndicatorCache[slot] = indicator;
+        }
+        indicator.setVisibility(INVISIBLE);
+        mLoadingIndicator = indicator;
+
+        addViewInLayout(indicator, -1, new LayoutParams(mCircleDiameter, mCircleDiameter), true);
+        applyFrameRateVote();
+        if (isLaidOut()) {
+            measureIndicator();
+            layoutIndicator();
+        }
+    }
+
+    private void ensureIndicatorDrawable() {
+        int styleRes = mCurrentStyle == STYLE_CONTAINED
+                ? com.google.android.material.R.style.Widget_Material3_LoadingIndicator_Contained
+                : com.google.android.material.R.style.Widget_Material3_LoadingIndicator;
+        mIndicatorDrawable = LoadingIndicatorDrawable.create(getContext(),
+                new LoadingIndicatorSpec(getContext(), null, 0, styleRes));
+        mIndicatorDrawable.setVisible(false, false);
+        mIndicatorDrawable.setCallback(this);
+        if (isLaidOut()) {
+            layoutIndicator();
         }
     }
 
-    private void setupProgressIndicator(int style) {
+    private void removeIndicator() {
         if (mLoadingIndicator != null) {
-            removeView(mLoadingIndicator);
+            stopLoadingAnimation();
+            removeViewInLayout(mLoadingIndicator);
             mLoadingIndicator = null;
+            invalidate();
+        }
+        if (mIndicatorDrawable != null) {
+            mIndicatorDrawable.setVisible(false, false);
+            mIndicatorDrawable.setCallback(null);
+            mIndicatorDrawable = null;
+            invalidate();
         }
+        setSpinnerActive(false);
+    }
 
-        View root = LayoutInflater.from(getContext()).inflate(R.layout.m3_loading_indicator, this, false);
-        if (style == STYLE_CONTAINED) {
-            mLoadingIndicator = root.findViewById(R.id.indicator_contained);
-        } else {
-            mLoadingIndicator = root.findViewById(R.id.indicator_uncontained);
+    /**
+     * The refresh spinner of {@link #INDICATOR_RENDER_RENDER_THREAD} is only used for the
+     * uncontained style on a hardware accelerated view; everything else falls back to
+     * the Material drawable.
+     */
+    private boolean canUseRenderThreadSpinner() {
+        return mIndicatorRenderMode == INDICATOR_RENDER_RENDER_THREAD
+                && mCurrentStyle == STYLE_UNCONTAINED
+                && isHardwareAccelerated()
+                && getLayerType() != LAYER_TYPE_SOFTWARE;
+    }
+
+    private void setSpinnerActive(boolean active) {
+        if (mSpinnerActive == active) {
+            return;
         }
-        
-        ((ViewGroup) mLoadingIndicator.getParent()).removeView(mLoadingIndicator);
-        
-        mLoadingIndicator.setIndicatorColor(mColors);
-        mLoadingIndicator.setVisibility(GONE);
-        
-        addView(mLoadingIndicator, new LayoutParams(mCircleDiameter, mCircleDiameter));
+        mSpinnerActive = active;
+        if (active) {
+            if (mSpinnerDrawable == null) {
+                mSpinnerDrawable = (AnimatedVectorDrawable) getContext().getDrawable(R.drawable.m3_refresh_spinner).mutate();
+                mSpinnerDrawable.setCallback(this);
+                if (isLaidOut()) {
+                    layoutIndicator();
+                }
+            }
+            mSpinnerDrawable.start();
+        } else if (mSpinnerDrawable != null) {
+            mSpinnerDrawable.stop();
+        }
+        invalidate();
+    }
+
+    /**
+     * With {@link #INDICATOR_RENDER_DRAWABLE} the indicator is a drawable drawn by this view
+     * after its children instead of a child view, so it takes no part in measure, layout,
+     * touch dispatch or drawing order. The contained style then has no elevation shadow.
+     *
+     * {@link #INDICATOR_RENDER_RENDER_THREAD} draws the pull the same way, but while refreshing
+     * shows an {@link AnimatedVectorDrawable} spinner whose animation runs on the RenderThread,
+     * so it keeps spinning while the main thread is busy binding the refreshed content. Only
+     * the uncontained style can be offloaded; the contained style and software rendered views
+     * keep the main-thread Material animation.
+     */
+    public void setIndicatorRenderMode(int mode) {
+        if (mIndicatorRenderMode != mode) {
+            boolean created = mLoadingIndicator != null || mIndicatorDrawable != null;
+            removeIndicator();
+            mIndicatorRenderMode = mode;
+            setChildrenDrawingOrderEnabled(mode == INDICATOR_RENDER_VIEW);
+            if (created) {
+                ensureIndicator();
+                updateIndicatorPosition();
+            }
+        }
+    }
+
+    public int getIndicatorRenderMode() {
+        return mIndicatorRenderMode;
     }
 
     public void setIndicatorStyle(int style) {
         if (mCurrentStyle != style) {
+            boolean created = mLoadingIndicator != null || mIndicatorDrawable != null;
+            removeIndicator();
             mCurrentStyle = style;
-            updateColors(getContext());
-            setupProgressIndicator(style);
+            if (mDegradedSpinnerActive) {
+                resolveDegradedColors();
+                invalidate();
+            }
+            if (created) {
+                ensureIndicator();
+                updateIndicatorPosition();
+            }
         }
     }
 
@@ -160,11 +381,60 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
         return mCurrentStyle;
     }
 
+    /**
+     * Replaces the curve that maps the pull distance to the indicator offset, scale and rotation.
+     */
+    public void setDragCurve(@NonNull DragCurve curve) {
+        mPullState.setDragCurve(curve);
+    }
+
+    @NonNull
+    public DragCurve getDragCurve() {
+        return mPullState.getDragCurve();
+    }
+
+    /**
+     * With {@link #CONTENT_TRANSLATION_FOLLOW} the content slides down with the pull.
+     * It is moved through translationY only, so it is never re-laid out while dragging
+     * and touch dispatch keeps mapping events through the translated bounds.
+     */
+    public void setContentTranslationMode(int mode) {
+        if (mContentTranslationMode != mode) {
+            final boolean wasFollowing = mContentTranslationMode == CONTENT_TRANSLATION_FOLLOW;
+            mContentTranslationMode = mode;
+            if (wasFollowing && mTarget != null) {
+                mTarget.setTranslationY(0);
+            }
+            applyContentTranslation();
+        }
+    }
+
+    public int getContentTranslationMode() {
+        return mContentTranslationMode;
+    }
+
+    /**
+     * When enabled, drag deltas from touch and nested scrolling are accumulated and
+     * applied once per {@link Choreographer} frame instead of once per input event.
+     * Threshold detection and haptics still look at every sample, including
+     * historical {@link MotionEvent} samples.
+     */
+    public void setInputCoalescingEnabled(boolean enabled) {
+        if (mCoalesceInput != enabled) {
+            flushPendingOffset();
+            mCoalesceInput = enabled;
+        }
+    }
+
+    public boolean isInputCoalescingEnabled() {
+        return mCoalesceInput;
+    }
+
     private void ensureTarget() {
         if (mTarget == null) {
             for (int i = 0; i < getChildCount(); i++) {
                 View child = getChildAt(i);
-                if (child != mLoadingIndicator) {
+                if (child != mLoadingIndicator && child != mLoadMoreIndicator) {
                     mTarget = child;
                     break;
                 }
@@ -191,19 +461,176 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
         child.layout(childLeft, childTop, childLeft + childWidth, childTop + childHeight);
 
         layoutIndicator();
+        layoutLoadMoreIndicator();
+        updateIndicatorPaused();
     }
 
     private int mCurrentOffset = 0;
 
+    /**
+     * The indicator is laid out once at the top edge; pulling only moves it via
+     * translationY so drag samples and animator ticks never re-enter layout.
+     */
     private void layoutIndicator() {
         if (mLoadingIndicator != null) {
             int width = getMeasuredWidth();
             int indicatorLeft = (width / 2) - (mCircleDiameter / 2);
-            int indicatorTop = mCurrentOffset;
-            mLoadingIndicator.layout(indicatorLeft, indicatorTop, indicatorLeft + mCircleDiameter, indicatorTop + mCircleDiameter);
+            mLoadingIndicator.layout(indicatorLeft, 0, indicatorLeft + mCircleDiameter, mCircleDiameter);
+            mLoadingIndicator.setTranslationY(mCurrentOffset);
+        }
+        if (mIndicatorDrawable != null) {
+            int indicatorLeft = (getMeasuredWidth() / 2) - (mCircleDiameter / 2);
+            mIndicatorDrawable.setBounds(indicatorLeft, 0, indicatorLeft + mCircleDiameter, mCircleDiameter);
+        }
+        if (mSpinnerDrawable != null) {
+            int indicatorLeft = (getMeasuredWidth() / 2) - (mCircleDiameter / 2);
+            mSpinnerDrawable.setBounds(indicatorLeft, 0, indicatorLeft + mCircleDiameter, mCircleDiameter);
+        }
+    }
+
+    private void layoutLoadMoreIndicator() {
+        if (mLoadMoreIndicator != null) {
+            int indicatorLeft = (getMeasuredWidth() / 2) - (mCircleDiameter / 2);
+            int indicatorBottom = getMeasuredHeight() - getPaddingBottom();
+            mLoadMoreIndicator.layout(indicatorLeft, indicatorBottom - mCircleDiameter,
+                    indicatorLeft + mCircleDiameter, indicatorBottom);
         }
     }
 
+    @Override
+    protected void dispatchDraw(@NonNull Canvas canvas) {
+        if (mIndicatorPaused) {
+            mHiddenFrameCount++;
+        }
+        super.dispatchDraw(canvas);
+        if (mDegradedSpinnerActive) {
+            drawDegradedSpinner(canvas);
+            return;
+        }
+        final Drawable indicator;
+        if (mSpinnerActive) {
+            indicator = mSpinnerDrawable;
+        } else if (mIndicatorDrawable != null && mIndicatorDrawable.isVisible()) {
+            indicator = mIndicatorDrawable;
+        } else {
+            return;
+        }
+        final float centerX = indicator.getBounds().exactCenterX();
+        final float centerY = indicator.getBounds().exactCenterY();
+        final int saveCount = canvas.save();
+        canvas.translate(0, mCurrentOffset);
+        canvas.rotate(mIndicatorRotation, centerX, centerY);
+        canvas.scale(mIndicatorScale, mIndicatorScale, centerX, centerY);
+        indicator.draw(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * The degraded spinner is a plain arc, plus the container circle for the contained style
+     * but without its shadow, turned in coarse steps by {@link #onDegradedFrame()}.
+     */
+    private void drawDegradedSpinner(Canvas canvas) {
+        final float radius = mCircleDiameter / 2f;
+        final float centerX = getWidth() / 2f;
+        final float centerY = mCurrentOffset + radius;
+        if (mCurrentStyle == STYLE_CONTAINED) {
+            mDegradedPaint.setStyle(Paint.Style.FILL);
+            mDegradedPaint.setColor(mDegradedContainerColor);
+            canvas.drawCircle(centerX, centerY, radius, mDegradedPaint);
+        }
+        final float arcRadius = radius * 0.5f;
+        mDegradedPaint.setStyle(Paint.Style.STROKE);
+        mDegradedPaint.setStrokeWidth(radius / 6f);
+        mDegradedPaint.setColor(mDegradedArcColor);
+        canvas.drawArc(centerX - arcRadius, centerY - arcRadius, centerX + arcRadius, centerY + arcRadius,
+                mDegradedRotation, DEGRADED_ARC_SWEEP, false, mDegradedPaint);
+    }
+
+    private void onDegradedFrame() {
+        mDegradedRotation = (mDegradedRotation + DEGRADED_ROTATION_STEP) % 360f;
+        invalidate();
+        postOnAnimationDelayed(mDegradedFrameRunnable, DEGRADED_FRAME_INTERVAL);
+    }
+
+    private void setDegradedSpinnerActive(boolean active) {
+        if (mDegradedSpinnerActive == active) {
+            return;
+        }
+        mDegradedSpinnerActive = active;
+        if (active) {
+            if (mDegradedPaint == null) {
+                mDegradedPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mDegradedPaint.setStrokeCap(Paint.Cap.ROUND);
+                mDegradedFrameRunnable = this::onDegradedFrame;
+            }
+            resolveDegradedColors();
+            postOnAnimationDelayed(mDegradedFrameRunnable, DEGRADED_FRAME_INTERVAL);
+        } else {
+            removeCallbacks(mDegradedFrameRunnable);
+        }
+        invalidate();
+    }
+
+    /**
+     * Invalidates only the area the drawable indicator covered last time and covers now, as
+     * drawn by {@link #dispatchDraw(Canvas)}: translated by the offset, scaled and rotated
+     * about its center.
+     */
+    @SuppressWarnings("deprecation")
+    private void invalidateIndicator() {
+        final Rect bounds = mIndicatorDrawable.getBounds();
+        final double radians = Math.toRadians(mIndicatorRotation);
+        final float halfSize = bounds.width() / 2f * Math.abs(mIndicatorScale)
+                * (float) (Math.abs(Math.cos(radians)) + Math.abs(Math.sin(radians)));
+        final float centerX = bounds.exactCenterX();
+        final float centerY = bounds.exactCenterY() + mCurrentOffset;
+        final int left = (int) Math.floor(centerX - halfSize);
+        final int top = (int) Math.floor(centerY - halfSize);
+        final int right = (int) Math.ceil(centerX + halfSize);
+        final int bottom = (int) Math.ceil(centerY + halfSize);
+        if (mIndicatorDirtyRect == null) {
+            mIndicatorDirtyRect = new Rect();
+        }
+        final Rect previous = mIndicatorDirtyRect;
+        if (previous.isEmpty()) {
+            invalidate(left, top, right, bottom);
+        } else {
+            invalidate(Math.min(left, previous.left), Math.min(top, previous.top),
+                    Math.max(right, previous.right), Math.max(bottom, previous.bottom));
+        }
+        previous.set(left, top, right, bottom);
+    }
+
+    @Override
+    public void invalidateDrawable(@NonNull Drawable drawable) {
+        if (mIndicatorDrawable != null && (drawable == mIndicatorDrawable || drawable == mSpinnerDrawable)) {
+            invalidateIndicator();
+        } else {
+            super.invalidateDrawable(drawable);
+        }
+    }
+
+    private void resolveDegradedColors() {
+        mDegradedContainerColor = MaterialColors.getColor(getContext(),
+                com.google.android.material.R.attr.colorPrimaryContainer, 0xFFEADDFF);
+        mDegradedArcColor = getIndicatorColor();
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        // A handled uiMode change switches day/night without recreating the view.
+        if (mDegradedSpinnerActive) {
+            resolveDegradedColors();
+            invalidate();
+        }
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return who == mIndicatorDrawable || who == mSpinnerDrawable || super.verifyDrawable(who);
+    }
+
     @Override
     protected int getChildDrawingOrder(int childCount, int i) {
         if (mLoadingIndicator == null) {
@@ -221,43 +648,90 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
 
     private void setTargetOffsetTop(int offset) {
         if (mTarget != null) {
-            mCurrentTargetOffsetTop = mCurrentTargetOffsetTop + offset;
-
-            float dragPercent = (float) mCurrentTargetOffsetTop / mTotalDragDistance;
-
-            if (dragPercent >= 1.0f && !mThresholdReached && !mRefreshing) {
-                mThresholdReached = true;
-                performHapticFeedback(android.view.HapticFeedbackConstants.CLOCK_TICK);
-            } else if (dragPercent < 1.0f) {
-                mThresholdReached = false;
+            if (mPullState.moveTo(mPullState.getOffset() + offset)) {
+                onThresholdReached();
             }
 
-            mCurrentOffset = (int) (mCurrentTargetOffsetTop * 0.6f);
+            mCurrentOffset = (int) (mPullState.getOffset() * 0.6f);
             updateIndicatorPosition();
-            invalidate();
+            applyContentTranslation();
+        }
+    }
+
+    private void updateThreshold(int offset) {
+        if (mPullState.trackThreshold(offset)) {
+            onThresholdReached();
+        }
+    }
+
+    private void onThresholdReached() {
+        if (mMetricsListener != null && mThresholdNanos == 0) {
+            mThresholdNanos = System.nanoTime();
+        }
+        performHapticFeedback(android.view.HapticFeedbackConstants.CLOCK_TICK);
+    }
+
+    private void applyPendingOffset() {
+        mCoalescePending = false;
+        setTargetOffsetTop(mPendingOffset - mPullState.getOffset());
+    }
+
+    private void flushPendingOffset() {
+        if (mCoalescePending) {
+            Choreographer.getInstance().removeFrameCallback(mCoalesceFrameCallback);
+            applyPendingOffset();
+        }
+    }
+
+    /**
+     * Only touches the content while following the pull, so translations the app applies
+     * to its own content are left alone in the default mode.
+     */
+    private void applyContentTranslation() {
+        if (mTarget != null && mContentTranslationMode == CONTENT_TRANSLATION_FOLLOW) {
+            mTarget.setTranslationY(mPullState.getOffset());
         }
     }
 
     private void updateIndicatorPosition() {
+        final int offset = mPullState.getOffset();
+        final boolean refreshing = mPullState.isRefreshing();
+        if (mLoadingIndicator == null && mIndicatorDrawable == null && (offset > 0 || refreshing)) {
+            ensureIndicator();
+        }
+        final boolean degradedSpinner = refreshing && !mIndicatorPaused && mDegradedQuality;
+        setDegradedSpinnerActive(degradedSpinner);
+        if (mIndicatorDrawable != null) {
+            final boolean spinner = refreshing && !mIndicatorPaused && !degradedSpinner && canUseRenderThreadSpinner();
+            final boolean shown = (offset > 0 || refreshing) && !mIndicatorPaused && !degradedSpinner && !spinner;
+            setSpinnerActive(spinner);
+            mIndicatorScale = refreshing ? 1f : mPullState.getDragCurve().computeScale(offset);
+            mIndicatorRotation = refreshing ? 0 : mPullState.getDragCurve().computeRotation(offset);
+            if (mIndicatorDrawable.isVisible() != shown) {
+                mIndicatorDrawable.setVisible(shown, false);
+            }
+            invalidateIndicator();
+        }
         if (mLoadingIndicator != null) {
-            float dragPercent = Math.min(1.5f, (float) mCurrentTargetOffsetTop / mTotalDragDistance);
-            
-            float rawScale = Math.min(1f, dragPercent / 0.7f);
-            float scale = mRefreshing ? 1f : (float) (Math.pow(rawScale, 2) * (3 - 2 * rawScale));
+            float scale = refreshing ? 1f : mPullState.getDragCurve().computeScale(offset);
 
-            mLoadingIndicator.setVisibility(mCurrentTargetOffsetTop > 0 || mRefreshing ? VISIBLE : GONE);
+            mLoadingIndicator.setVisibility((offset > 0 || refreshing) && !mIndicatorPaused && !degradedSpinner
+                    ? VISIBLE : INVISIBLE);
+            mLoadingIndicator.setTranslationY(mCurrentOffset);
             mLoadingIndicator.setScaleX(scale);
             mLoadingIndicator.setScaleY(scale);
 
-            if (!mRefreshing) {
-                mLoadingIndicator.setRotation(dragPercent * 360f);
+            if (!refreshing) {
+                mLoadingIndicator.setRotation(mPullState.getDragCurve().computeRotation(offset));
                 stopLoadingAnimation();
             } else {
                 mLoadingIndicator.setRotation(0);
-                startLoadingAnimation();
+                if (mIndicatorPaused || degradedSpinner) {
+                    stopLoadingAnimation();
+                } else {
+                    startLoadingAnimation();
+                }
             }
-
-            layoutIndicator();
         }
     }
 
@@ -271,23 +745,42 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
                     MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(
                     getMeasuredHeight() - getPaddingTop() - getPaddingBottom(), MeasureSpec.EXACTLY));
         }
+        measureIndicator();
+    }
+
+    private void measureIndicator() {
         if (mLoadingIndicator != null) {
             mLoadingIndicator.measure(MeasureSpec.makeMeasureSpec(mCircleDiameter, MeasureSpec.EXACTLY),
                     MeasureSpec.makeMeasureSpec(mCircleDiameter, MeasureSpec.EXACTLY));
         }
+        if (mLoadMoreIndicator != null) {
+            mLoadMoreIndicator.measure(MeasureSpec.makeMeasureSpec(mCircleDiameter, MeasureSpec.EXACTLY),
+                    MeasureSpec.makeMeasureSpec(mCircleDiameter, MeasureSpec.EXACTLY));
+        }
+    }
+
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        if (mGestureRecorder != null) {
+            mGestureRecorder.recordMotionEvent(ev);
+        }
+        traceMotionEvent(ev);
+        return super.dispatchTouchEvent(ev);
     }
 
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
         ensureTarget();
-        if (!isEnabled() || canChildScrollUp() || mRefreshing) {
+        if (!isEnabled() || canChildScrollUp() || mPullState.isRefreshing()) {
             return false;
         }
 
         final int action = ev.getActionMasked();
+        trackVelocity(ev);
 
         switch (action) {
             case MotionEvent.ACTION_DOWN:
+                onGestureStart();
                 mActivePointerId = ev.getPointerId(0);
                 mIsBeingDragged = false;
                 final float initialMotionY = getMotionEventY(ev, mActivePointerId);
@@ -348,9 +841,11 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
         }
 
         final int action = ev.getActionMasked();
+        trackVelocity(ev);
 
         switch (action) {
             case MotionEvent.ACTION_DOWN:
+                onGestureStart();
                 mActivePointerId = ev.getPointerId(0);
                 mIsBeingDragged = false;
                 mInitialMotionX = ev.getX(ev.findPointerIndex(mActivePointerId));
@@ -375,9 +870,12 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
                 }
 
                 if (mIsBeingDragged) {
-                    final float scrollTop = yDiff * DRAG_RATE;
+                    final float scrollTop = yDiff * PullStateMachine.DRAG_RATE;
                     if (scrollTop > 0) {
                         getParent().requestDisallowInterceptTouchEvent(true);
+                        if (mCoalesceInput) {
+                            trackHistoricalThreshold(ev, pointerIndex);
+                        }
                         mTotalUnconsumed = yDiff;
                         moveSpinner(mTotalUnconsumed);
                     } else {
@@ -409,8 +907,13 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
                 }
                 final float y = ev.getY(pointerIndex);
                 final float yDiff = y - mInitialMotionY;
+                float velocityY = 0;
+                if (action == MotionEvent.ACTION_UP && mVelocityTracker != null) {
+                    mVelocityTracker.computeCurrentVelocity(1000, mMaximumFlingVelocity);
+                    velocityY = mVelocityTracker.getYVelocity(mActivePointerId);
+                }
                 mIsBeingDragged = false;
-                finishSpinner(yDiff);
+                finishSpinner(yDiff, velocityY);
                 mTotalUnconsumed = 0;
                 mActivePointerId = -1;
                 return false;
@@ -420,6 +923,26 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
         return true;
     }
 
+    private void trackVelocity(MotionEvent ev) {
+        if (mVelocityTracker == null) {
+            mVelocityTracker = VelocityTracker.obtain();
+        }
+        if (ev.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            mVelocityTracker.clear();
+        }
+        mVelocityTracker.addMovement(ev);
+    }
+
+    private void trackHistoricalThreshold(MotionEvent ev, int pointerIndex) {
+        final int historySize = ev.getHistorySize();
+        for (int h = 0; h < historySize; h++) {
+            final float overscroll = ev.getHistoricalY(pointerIndex, h) - mInitialMotionY;
+            if (overscroll > 0) {
+                updateThreshold(mPullState.computeOffset(overscroll));
+            }
+        }
+    }
+
     private void onSecondaryPointerUp(MotionEvent ev) {
         final int pointerIndex = ev.getActionIndex();
         final int pointerId = ev.getPointerId(pointerIndex);
@@ -430,36 +953,102 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
     }
 
     private boolean canChildScrollUp() {
+        if (mChildScrollUpCallback != null) {
+            return mChildScrollUpCallback.canChildScrollUp(this, mTarget);
+        }
         if (mTarget == null) return false;
-        return ViewCompat.canScrollVertically(mTarget, -1);
+        return ChildScrollUpCallbacks.canScrollUp(mTarget);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAttached = true;
+        updateScrollChangedListener();
+        updateIndicatorPaused();
+        updateQualityMonitoring();
+        if (mRefreshCoordinator != null) {
+            mRefreshCoordinator.register(this);
+        }
+        if (mRefreshPolicy != null && mRefreshPolicy.isRefreshOnAttachWhenStale()
+                && !mPullState.isRefreshing() && !mRefreshPolicy.isFresh()) {
+            ensureTarget();
+            setRefreshing(true, true);
+        }
     }
 
     @Override
     protected void onDetachedFromWindow() {
+        mAttached = false;
+        if (mScrollChangedListenerRegistered) {
+            getViewTreeObserver().removeOnScrollChangedListener(mScrollChangedListener);
+            mScrollChangedListenerRegistered = false;
+        }
+        if (mRefreshCoordinator != null) {
+            mRefreshCoordinator.unregister(this);
+        }
         super.onDetachedFromWindow();
+        updateIndicatorPaused();
+        updateQualityMonitoring();
+        removeCallbacks(mUpToDateRunnable);
+        if (mCoalescePending) {
+            Choreographer.getInstance().removeFrameCallback(mCoalesceFrameCallback);
+            mCoalescePending = false;
+        }
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
         stopAnimations();
+        if (mFrameMonitor != null) {
+            mFrameMonitor.stop();
+        }
+        cancelPrediction();
+        if (mInFlightRefresh != null) {
+            if (mRefreshCoordinator != null) {
+                // Other views may still show the shared refresh; the coordinator cancels it
+                // once the last of them is gone.
+                mInFlightRefresh = null;
+                removeCallbacks(mRefreshTimeoutRunnable);
+            } else {
+                cancelInFlightRefresh();
+            }
+            mPullState.setRefreshing(false);
+            setTargetOffsetTop(mOriginalOffsetTop - mPullState.getOffset());
+            mPullState.onSettled();
+        }
     }
 
     private void stopAnimations() {
         if (mOffsetAnimator != null) {
             mOffsetAnimator.cancel();
-            mOffsetAnimator = null;
-        }
-        if (mRefreshAnimator != null) {
-            mRefreshAnimator.cancel();
-            mRefreshAnimator = null;
         }
+        updateFrameRateVote();
         if (mLoadingIndicator != null) {
-            mLoadingIndicator.setVisibility(GONE);
+            mLoadingIndicator.setVisibility(INVISIBLE);
             stopLoadingAnimation();
         }
+        if (mIndicatorDrawable != null && mIndicatorDrawable.isVisible()) {
+            mIndicatorDrawable.setVisible(false, false);
+            invalidate();
+        }
+        setSpinnerActive(false);
     }
 
     private void startAnimations() {
+        ensureIndicator();
+        if (mIndicatorPaused || mDegradedQuality) {
+            updateIndicatorPosition();
+            return;
+        }
         if (mLoadingIndicator != null) {
             mLoadingIndicator.setVisibility(VISIBLE);
             startLoadingAnimation();
         }
+        if (mIndicatorDrawable != null && !mIndicatorDrawable.isVisible() && !canUseRenderThreadSpinner()) {
+            mIndicatorDrawable.setVisible(true, false);
+            invalidate();
+        }
     }
 
     private void stopLoadingAnimation() {
@@ -492,77 +1081,739 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
         }
     }
 
+    private void onOffsetAnimationUpdate(ValueAnimator animation) {
+        int target = mAnimateFrom + (int) ((mAnimateTo - mAnimateFrom) * animation.getAnimatedFraction());
+        setTargetOffsetTop(target - mPullState.getOffset());
+    }
+
+    private void onOffsetAnimationEnd() {
+        if (mAnimationCanceled) return;
+        if (mBounceBack) {
+            animateOffsetToStartPosition();
+        } else if (mAnimatingToStart && !mPullState.isRefreshing()) {
+            mPullState.onSettled();
+            trace(GestureTrace.EVENT_SETTLED, 0);
+            stopAnimations();
+            reportRefreshCycle();
+            if (mFrameMonitor != null) mFrameMonitor.stop();
+        }
+        updateFrameRateVote();
+    }
+
     private void animateOffsetToStartPosition() {
-        if (mOffsetAnimator != null) {
-            mOffsetAnimator.cancel();
+        animateOffsetTo(mOriginalOffsetTop, ANIMATE_TO_START_DURATION, true, false);
+    }
+
+    private void postRefreshTimeout() {
+        if (mRefreshTimeoutRunnable == null) {
+            mRefreshTimeoutRunnable = this::onRefreshTimeout;
+        }
+        postDelayed(mRefreshTimeoutRunnable, mRefreshTimeout);
+    }
+
+    /**
+     * Settle and trigger animations share one float animator whose listeners are
+     * created once, and frames read the float fraction instead of a boxed value, so
+     * a warmed-up pull/trigger/settle cycle allocates nothing, from animation start
+     * through every frame to the end callbacks (see AnimationAllocationTest). Starting a new animation interrupts the
+     * running one and continues from the current offset. When {@code bounceBack} is set,
+     * the animation springs back to the start once it ends; a cancel drops the bounce.
+     */
+    private void animateOffsetTo(int target, int duration, boolean toStart, boolean bounceBack) {
+        ValueAnimator animator = mOffsetAnimator;
+        if (animator == null) {
+            animator = ValueAnimator.ofFloat(0f, 1f);
+            animator.setInterpolator(DECELERATE_INTERPOLATOR);
+            // The listeners are created with the animator, so an instance that is never
+            // pulled holds neither.
+            animator.addUpdateListener(this::onOffsetAnimationUpdate);
+            animator.addListener(new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationCancel(Animator animation) {
+                    mAnimationCanceled = true;
+                    mBounceBack = false;
+                }
+
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    onOffsetAnimationEnd();
+                }
+            });
+            mOffsetAnimator = animator;
+        } else if (animator.isStarted()) {
+            animator.cancel();
         }
-        int from = mCurrentTargetOffsetTop;
-        mOffsetAnimator = ValueAnimator.ofInt(from, mOriginalOffsetTop);
-        mOffsetAnimator.setDuration(ANIMATE_TO_START_DURATION);
-        mOffsetAnimator.setInterpolator(mDecelerateInterpolator);
-        mOffsetAnimator.addUpdateListener(animation -> {
-            int offset = (int) animation.getAnimatedValue() - mCurrentTargetOffsetTop;
-            setTargetOffsetTop(offset);
-        });
-        mOffsetAnimator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                if (!mRefreshing) stopAnimations();
+        mAnimateFrom = mPullState.getOffset();
+        mAnimateTo = target;
+        mAnimatingToStart = toStart;
+        mAnimationCanceled = false;
+        mBounceBack = bounceBack;
+        animator.setDuration(durationForVelocity(target - mAnimateFrom, duration));
+        animator.start();
+        updateFrameRateVote();
+    }
+
+    @VisibleForTesting
+    @Nullable
+    ValueAnimator getOffsetAnimator() {
+        return mOffsetAnimator;
+    }
+
+    /**
+     * On API 35+, votes for the highest display refresh rate while the indicator follows a
+     * finger or an offset animation runs, and withdraws the vote as soon as it settles, so a
+     * refresh spinner sitting still does not keep an adaptive-refresh panel at its top rate.
+     */
+    private void updateFrameRateVote() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.VANILLA_ICE_CREAM) {
+            return;
+        }
+        final boolean high = mIsBeingDragged || mTotalUnconsumed > 0
+                || (mOffsetAnimator != null && mOffsetAnimator.isRunning());
+        if (high != mHighFrameRateRequested) {
+            mHighFrameRateRequested = high;
+            applyFrameRateVote();
+        }
+    }
+
+    private void applyFrameRateVote() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.VANILLA_ICE_CREAM) {
+            final float frameRate = mHighFrameRateRequested
+                    ? REQUESTED_FRAME_RATE_CATEGORY_HIGH
+                    : REQUESTED_FRAME_RATE_CATEGORY_DEFAULT;
+            // Votes are counted for views that change, which is the indicator child in view mode.
+            setRequestedFrameRate(frameRate);
+            if (mLoadingIndicator != null) {
+                mLoadingIndicator.setRequestedFrameRate(frameRate);
             }
-        });
-        mOffsetAnimator.start();
+        }
+    }
+
+    /**
+     * Shortens the animation so that its initial speed matches the release velocity when
+     * the finger was already moving toward the target. The decelerate interpolator starts
+     * at 2 * factor times the average speed, which gives the duration directly.
+     */
+    private int durationForVelocity(int distance, int duration) {
+        final float velocity = mReleaseVelocity;
+        mReleaseVelocity = 0;
+        if (distance == 0 || velocity == 0 || (distance > 0) != (velocity > 0)) {
+            return duration;
+        }
+        final float matched = 2 * DECELERATE_INTERPOLATION_FACTOR * Math.abs(distance) * 1000 / Math.abs(velocity);
+        return (int) Math.max(MIN_SETTLE_DURATION, Math.min(duration, matched));
+    }
+
+    /**
+     * A fling that hits the top edge pushes the indicator out in proportion to the impact
+     * velocity and springs back, without ever reaching the refresh threshold.
+     */
+    private void bounceFromFling(float velocityY) {
+        final float velocity = Math.min(Math.abs(velocityY), mMaximumFlingVelocity);
+        final int height = (int) Math.min(mPullState.getTotalDragDistance() * FLING_BOUNCE_RATIO, velocity * FLING_BOUNCE_TIME);
+        if (height <= 0) {
+            return;
+        }
+        mReleaseVelocity = velocity;
+        animateOffsetTo(height, ANIMATE_TO_START_DURATION, false, true);
     }
 
     private void setRefreshing(boolean refreshing, boolean notify) {
-        if (mRefreshing != refreshing) {
+        if (mPullState.isRefreshing() != refreshing) {
+            final boolean notified = mNotify;
             mNotify = notify;
-            mRefreshing = refreshing;
-            if (mRefreshing) {
+            mPullState.setRefreshing(refreshing);
+            trace(refreshing ? GestureTrace.EVENT_REFRESH_START : GestureTrace.EVENT_REFRESH_END, notify ? 1 : 0);
+            updateScrollChangedListener();
+            if (refreshing) {
+                removeCallbacks(mUpToDateRunnable);
                 startAnimations();
-                
-                if (mRefreshAnimator != null) {
-                    mRefreshAnimator.cancel();
-                }
-                int endTarget = mTotalDragDistance;
-                mRefreshAnimator = ValueAnimator.ofInt(mCurrentTargetOffsetTop, endTarget);
-                mRefreshAnimator.setDuration(ANIMATE_TO_TRIGGER_DURATION);
-                mRefreshAnimator.setInterpolator(mDecelerateInterpolator);
-                mRefreshAnimator.addUpdateListener(animation -> {
-                    int offset = (int) animation.getAnimatedValue() - mCurrentTargetOffsetTop;
-                    setTargetOffsetTop(offset);
-                });
-                mRefreshAnimator.start();
-                
-                if (mNotify && mListener != null) {
-                    mListener.onRefresh();
+                animateOffsetTo(mPullState.getTotalDragDistance(), ANIMATE_TO_TRIGGER_DURATION, false, false);
+
+                if (mNotify) {
+                    if (mRefreshPolicy != null && !mRefreshPolicy.shouldRefresh()) {
+                        // Data is still fresh: show a short "already up to date" settle instead.
+                        mNotify = false;
+                        if (mUpToDateRunnable == null) {
+                            mUpToDateRunnable = () -> setRefreshing(false);
+                        }
+                        postDelayed(mUpToDateRunnable, UP_TO_DATE_HOLD_DURATION);
+                    } else {
+                        notifyRefresh();
+                    }
                 }
             } else {
+                if (notified && mAsyncListener == null && mRefreshPolicy != null) {
+                    mRefreshPolicy.markRefreshed();
+                }
+                if (mMetricsListener != null) {
+                    mFinishNanos = System.nanoTime();
+                }
                 animateOffsetToStartPosition();
             }
         }
     }
 
+    private void notifyRefresh() {
+        if (mMetricsListener != null) {
+            mRefreshNanos = System.nanoTime();
+        }
+        if (mListener != null) {
+            mListener.onRefresh();
+        }
+        if (mAsyncListener != null) {
+            startAsyncRefresh();
+        }
+    }
+
+    private void startAsyncRefresh() {
+        if (mInFlightRefresh != null) {
+            // A pull while the previous refresh is still running joins it instead of starting another.
+            return;
+        }
+        if (mRefreshCoordinator != null) {
+            // The coordinator delivers completion to every view sharing the key.
+            mInFlightRefresh = mRefreshCoordinator.join(this, mAsyncListener);
+            if (mRefreshTimeout > 0) {
+                postRefreshTimeout();
+            }
+            return;
+        }
+        final CompletableFuture<?> refresh = mAsyncListener.onRefresh();
+        mInFlightRefresh = refresh;
+        if (mRefreshTimeout > 0) {
+            postRefreshTimeout();
+        }
+        refresh.whenComplete((result, error) -> post(() -> onAsyncRefreshComplete(refresh, error == null)));
+    }
+
+    /**
+     * Called by the coordinator when another view sharing the key started a refresh.
+     */
+    void onCoordinatedRefreshStarted(CompletableFuture<?> refresh) {
+        if (mInFlightRefresh == null && !mPullState.isRefreshing()) {
+            mInFlightRefresh = refresh;
+            setRefreshing(true, false);
+        }
+    }
+
+    void onAsyncRefreshComplete(CompletableFuture<?> refresh, boolean success) {
+        if (mInFlightRefresh != refresh) {
+            return;
+        }
+        mInFlightRefresh = null;
+        if (success && mRefreshPolicy != null) {
+            mRefreshPolicy.markRefreshed();
+        }
+        removeCallbacks(mRefreshTimeoutRunnable);
+        setRefreshing(false);
+    }
+
+    private void onRefreshTimeout() {
+        if (mInFlightRefresh != null) {
+            cancelInFlightRefresh();
+            setRefreshing(false);
+        }
+    }
+
+    /**
+     * Shares async refreshes with every attached view using the same key, see
+     * {@link RefreshCoordinator}. Pass null to refresh independently.
+     */
+    public void setRefreshKey(@Nullable String key) {
+        final RefreshCoordinator coordinator = key != null ? RefreshCoordinator.forKey(key) : null;
+        if (coordinator == mRefreshCoordinator) {
+            return;
+        }
+        if (mRefreshCoordinator != null && mAttached) {
+            mRefreshCoordinator.unregister(this);
+        }
+        mRefreshCoordinator = coordinator;
+        if (coordinator != null && mAttached) {
+            coordinator.register(this);
+        }
+    }
+
+    @Nullable
+    public String getRefreshKey() {
+        return mRefreshCoordinator != null ? mRefreshCoordinator.getKey() : null;
+    }
+
+    private void cancelInFlightRefresh() {
+        final CompletableFuture<?> refresh = mInFlightRefresh;
+        mInFlightRefresh = null;
+        removeCallbacks(mRefreshTimeoutRunnable);
+        refresh.cancel(true);
+    }
+
     public void setOnRefreshListener(OnRefreshListener listener) {
         mListener = listener;
     }
 
+    /**
+     * Sets a listener whose refresh completes through the returned future instead of a
+     * call to {@link #setRefreshing(boolean)}. The future may complete on any thread.
+     * It is cancelled when the refresh times out or the view is detached, and pulls
+     * made while it is still running join it rather than calling the listener again.
+     */
+    public void setOnAsyncRefreshListener(@Nullable OnAsyncRefreshListener listener) {
+        mAsyncListener = listener;
+    }
+
+    /**
+     * Maximum time to wait for an async refresh before cancelling it, in milliseconds.
+     * Zero or less disables the timeout. Defaults to 30 seconds.
+     */
+    public void setRefreshTimeout(long timeoutMillis) {
+        mRefreshTimeout = timeoutMillis;
+    }
+
+    public long getRefreshTimeout() {
+        return mRefreshTimeout;
+    }
+
+    /**
+     * Receives the timeline of every pull and refresh cycle, see {@link RefreshMetrics}
+     * for a listener that aggregates them into histograms. Timestamps are only taken while
+     * a listener is set.
+     */
+    public void setRefreshMetricsListener(@Nullable RefreshMetricsListener listener) {
+        mMetricsListener = listener;
+        resetRefreshCycle();
+    }
+
+    /**
+     * Reports per-pull frame timing, from the first drag sample until the indicator has
+     * settled. Frame callbacks are only posted while a listener is set and a pull is active.
+     */
+    public void setFrameStatsListener(@Nullable FrameStatsListener listener) {
+        if (mFrameMonitor != null) {
+            mFrameMonitor.stop();
+            mFrameMonitor = null;
+        }
+        mFrameStatsListener = listener;
+    }
+
+    /**
+     * Records every touch and nested scrolling input reaching this view, so that a field
+     * gesture can be replayed by the library's test-side {@code GestureReplayer}. Pass null
+     * to stop recording.
+     */
+    public void setGestureRecorder(@Nullable GestureRecorder recorder) {
+        mGestureRecorder = recorder;
+    }
+
+    /**
+     * Returns the always-on trace of recent gesture and refresh events. Call
+     * {@link GestureTrace#dump} from the main thread to write it out, for example when the
+     * user reports the indicator as stuck.
+     */
+    @NonNull
+    public GestureTrace getGestureTrace() {
+        if (mGestureTrace == null) {
+            mGestureTrace = new GestureTrace(GestureTrace.DEFAULT_CAPACITY);
+        }
+        return mGestureTrace;
+    }
+
+    private void trace(byte event, int value) {
+        int flags = 0;
+        if (mPullState.isRefreshing()) flags |= GestureTrace.FLAG_REFRESHING;
+        if (mIsBeingDragged) flags |= GestureTrace.FLAG_DRAGGING;
+        if (mNestedScrollInProgress) flags |= GestureTrace.FLAG_NESTED_SCROLL;
+        getGestureTrace().record(event, value, mPullState.getOffset(), flags);
+    }
+
+    private void traceMotionEvent(MotionEvent ev) {
+        final byte event;
+        switch (ev.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                event = GestureTrace.EVENT_TOUCH_DOWN;
+                break;
+            case MotionEvent.ACTION_MOVE:
+                event = GestureTrace.EVENT_TOUCH_MOVE;
+                break;
+            case MotionEvent.ACTION_UP:
+                event = GestureTrace.EVENT_TOUCH_UP;
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                event = GestureTrace.EVENT_TOUCH_CANCEL;
+                break;
+            default:
+                return;
+        }
+        trace(event, (int) ev.getY());
+    }
+
+    private long getFrameBudgetNanos() {
+        final Display display = getDisplay();
+        final float refreshRate = display != null ? display.getRefreshRate() : 60f;
+        return (long) (1_000_000_000L / (refreshRate > 0 ? refreshRate : 60f));
+    }
+
+    private void onGestureStart() {
+        cancelPrediction();
+        if (mMetricsListener != null && !mPullState.isRefreshing()) {
+            // A touch that catches the indicator while it settles ends the previous cycle
+            // without a settle.
+            reportRefreshCycle(0);
+            mTouchDownNanos = System.nanoTime();
+        }
+    }
+
+    private void reportRefreshCycle() {
+        reportRefreshCycle(System.nanoTime());
+    }
+
+    private void reportRefreshCycle(long settledNanos) {
+        if (mMetricsListener != null && (mReleaseNanos != 0 || mRefreshNanos != 0)) {
+            mMetricsListener.onRefreshCycle(mTouchDownNanos, mThresholdNanos, mReleaseNanos,
+                    mRefreshNanos, mFinishNanos, settledNanos);
+        }
+        resetRefreshCycle();
+    }
+
+    private void resetRefreshCycle() {
+        mTouchDownNanos = 0;
+        mThresholdNanos = 0;
+        mReleaseNanos = 0;
+        mRefreshNanos = 0;
+        mFinishNanos = 0;
+    }
+
+    /**
+     * Sets the policy that decides whether pulls reach the refresh listener. Use
+     * {@link RefreshPolicy#forKey(String)} to share freshness between views.
+     */
+    public void setRefreshPolicy(@Nullable RefreshPolicy policy) {
+        mRefreshPolicy = policy;
+    }
+
+    @Nullable
+    public RefreshPolicy getRefreshPolicy() {
+        return mRefreshPolicy;
+    }
+
     public void setRefreshing(boolean refreshing) {
         setRefreshing(refreshing, false);
     }
 
     public boolean isRefreshing() {
-        return mRefreshing;
+        return mPullState.isRefreshing();
+    }
+
+    /**
+     * Calls {@code listener} once the content is scrolled to within the prefetch distance of
+     * its end, or dragged up past the end. It is not called again until the page is finished
+     * with {@link #setLoadingMore(boolean) setLoadingMore(false)}, and, if that page added
+     * nothing, not until the target's item count or scroll range changes. Pass null to turn
+     * load-more off.
+     */
+    public void setOnLoadMoreListener(@Nullable OnLoadMoreListener listener) {
+        mLoadMoreListener = listener;
+        mLoadMoreLatched = false;
+        updateScrollChangedListener();
+    }
+
+    /**
+     * Shows or hides the bottom indicator. Set to false when the requested page has been
+     * appended, or failed, to allow the next load-more.
+     */
+    public void setLoadingMore(boolean loadingMore) {
+        if (mLoadingMore != loadingMore) {
+            mLoadingMore = loadingMore;
+            if (loadingMore) {
+                ensureLoadMoreIndicator();
+            }
+            if (mLoadMoreIndicator != null) {
+                mLoadMoreIndicator.setVisibility(loadingMore ? VISIBLE : INVISIBLE);
+            }
+        }
+    }
+
+    public boolean isLoadingMore() {
+        return mLoadingMore;
+    }
+
+    /**
+     * Distance in pixels before the end of the content at which load-more is triggered,
+     * so the next page is usually appended before the user reaches the bottom. The
+     * remaining distance comes from the target's vertical scroll range when it is a
+     * {@link ScrollingView}; other targets only trigger at the very end. Defaults to 0.
+     */
+    public void setLoadMorePrefetchDistance(int distance) {
+        mLoadMorePrefetchDistance = Math.max(0, distance);
+    }
+
+    public int getLoadMorePrefetchDistance() {
+        return mLoadMorePrefetchDistance;
+    }
+
+    private void ensureLoadMoreIndicator() {
+        if (mLoadMoreIndicator != null) {
+            return;
+        }
+        ensureTarget();
+        int layout = mCurrentStyle == STYLE_CONTAINED
+                ? R.layout.m3_loading_indicator_contained
+                : R.layout.m3_loading_indicator_uncontained;
+        mLoadMoreIndicator = (LoadingIndicator) LayoutInflater.from(getContext()).inflate(layout, this, false);
+        mLoadMoreIndicator.setIndicatorColor(getIndicatorColor());
+        addViewInLayout(mLoadMoreIndicator, -1, new LayoutParams(mCircleDiameter, mCircleDiameter), true);
+        if (isLaidOut()) {
+            measureIndicator();
+            layoutLoadMoreIndicator();
+        }
+    }
+
+    /**
+     * The scroll listener drives load-more prefetching, and while refreshing it also
+     * notices the view being scrolled out of its parent, such as an off-screen ViewPager2 page.
+     */
+    private void updateScrollChangedListener() {
+        final boolean register = (mLoadMoreListener != null || mPullState.isRefreshing()) && mAttached;
+        if (register != mScrollChangedListenerRegistered) {
+            if (register) {
+                if (mScrollChangedListener == null) {
+                    mScrollChangedListener = this::onTreeScrollChanged;
+                }
+                getViewTreeObserver().addOnScrollChangedListener(mScrollChangedListener);
+            } else {
+                getViewTreeObserver().removeOnScrollChangedListener(mScrollChangedListener);
+            }
+            mScrollChangedListenerRegistered = register;
+        }
+    }
+
+    private void onTreeScrollChanged() {
+        checkLoadMore();
+        updateIndicatorPaused();
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        mAggregatedVisible = isVisible;
+        updateIndicatorPaused();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateIndicatorPaused();
+    }
+
+    /**
+     * Pauses the indicator animation while the view cannot be seen: detached, hidden itself or
+     * through an ancestor, in an invisible window, or clipped out of its parent. Only the
+     * indicator is affected; refresh state and callbacks carry on as usual. The clip check
+     * waits for the first layout, since a view without a size has no visible rect yet.
+     */
+    private void updateIndicatorPaused() {
+        final boolean hidden = !mAttached
+                || !mAggregatedVisible
+                || getWindowVisibility() != VISIBLE
+                || (isLaidOut() && !getGlobalVisibleRect(sVisibleRect));
+        if (hidden != mIndicatorPaused) {
+            mIndicatorPaused = hidden;
+            if (hidden && (mPullState.getOffset() > 0 || mPullState.isRefreshing())) {
+                mIndicatorPauseCount++;
+            }
+            updateIndicatorPosition();
+        }
+    }
+
+    /**
+     * When enabled, the indicator switches to a cheaper refresh animation while battery saver
+     * is on or the device reports moderate or worse thermal throttling (API 29+): a static arc
+     * turned ten times a second instead of the shape-morphing Material indicator, and no
+     * shadow for {@link #STYLE_CONTAINED}. It switches back once conditions clear.
+     */
+    public void setAdaptiveQualityEnabled(boolean enabled) {
+        if (mAdaptiveQuality != enabled) {
+            mAdaptiveQuality = enabled;
+            updateQualityMonitoring();
+        }
+    }
+
+    public boolean isAdaptiveQualityEnabled() {
+        return mAdaptiveQuality;
+    }
+
+    /**
+     * Returns true while adaptive quality has switched the indicator to its cheaper animation.
+     */
+    public boolean isDegradedQuality() {
+        return mDegradedQuality;
+    }
+
+    private void updateQualityMonitoring() {
+        final boolean monitor = mAdaptiveQuality && mAttached;
+        if (monitor != mQualityMonitored) {
+            mQualityMonitored = monitor;
+            if (monitor) {
+                QualityMonitor.get(getContext()).register(this);
+            } else {
+                QualityMonitor.get(getContext()).unregister(this);
+            }
+        }
+        updateDegradedQuality();
+    }
+
+    void onQualityChanged() {
+        updateDegradedQuality();
+    }
+
+    private void updateDegradedQuality() {
+        final boolean degraded = mQualityMonitored && QualityMonitor.get(getContext()).isDegraded();
+        if (degraded != mDegradedQuality) {
+            mDegradedQuality = degraded;
+            updateIndicatorPosition();
+        }
+    }
+
+    /**
+     * Number of times the indicator animation was paused because the view became hidden
+     * while the indicator was showing or refreshing.
+     */
+    public int getIndicatorPauseCount() {
+        return mIndicatorPauseCount;
+    }
+
+    /**
+     * Number of times this layout was drawn while it was considered hidden. It stays at zero
+     * as long as a paused indicator produces no frames.
+     */
+    public int getHiddenFrameCount() {
+        return mHiddenFrameCount;
+    }
+
+    private boolean canLoadMore() {
+        if (mLoadMoreListener == null || mLoadingMore || !isEnabled() || mPullState.isRefreshing()) {
+            return false;
+        }
+        ensureTarget();
+        if (mTarget == null) {
+            return false;
+        }
+        if (mLoadMoreLatched) {
+            if (getItemCount(mTarget) == mLoadMoreItemCount && getScrollRange(mTarget) == mLoadMoreScrollRange) {
+                return false;
+            }
+            mLoadMoreLatched = false;
+        }
+        return true;
+    }
+
+    private void checkLoadMore() {
+        if (canLoadMore() && getRemainingScroll(mTarget) <= mLoadMorePrefetchDistance) {
+            triggerLoadMore();
+        }
+    }
+
+    private void triggerLoadMore() {
+        trace(GestureTrace.EVENT_LOAD_MORE, mLoadMorePrefetchDistance);
+        mLoadMoreLatched = true;
+        mLoadMoreItemCount = getItemCount(mTarget);
+        mLoadMoreScrollRange = getScrollRange(mTarget);
+        setLoadingMore(true);
+        mLoadMoreListener.onLoadMore();
+    }
+
+    private static int getItemCount(View target) {
+        if (target instanceof RecyclerView) {
+            final RecyclerView.Adapter<?> adapter = ((RecyclerView) target).getAdapter();
+            return adapter != null ? adapter.getItemCount() : 0;
+        }
+        if (target instanceof AdapterView) {
+            return ((AdapterView<?>) target).getCount();
+        }
+        return 0;
+    }
+
+    private static int getScrollRange(View target) {
+        if (target instanceof ScrollingView) {
+            return ((ScrollingView) target).computeVerticalScrollRange();
+        }
+        if (target instanceof ViewGroup && ((ViewGroup) target).getChildCount() > 0) {
+            // ScrollView and NestedScrollView scroll a single child.
+            return ((ViewGroup) target).getChildAt(0).getHeight();
+        }
+        return target.getHeight();
+    }
+
+    private static int getRemainingScroll(View target) {
+        if (target instanceof ScrollingView) {
+            ScrollingView scrollingView = (ScrollingView) target;
+            return scrollingView.computeVerticalScrollRange() - scrollingView.computeVerticalScrollOffset()
+                    - scrollingView.computeVerticalScrollExtent();
+        }
+        return target.canScrollVertically(1) ? Integer.MAX_VALUE : 0;
+    }
+
+    /**
+     * Turns on speculative refresh: while a pull is still in progress, {@code listener} is told
+     * as soon as the pull is predicted to trigger, so it can warm connections or start the fetch.
+     * A correct prediction is followed by the usual refresh callback on release, which should
+     * pick up the speculative work; a wrong one by
+     * {@link OnRefreshPrepareListener#onCancelPrepare()}. Pass null to turn it off.
+     */
+    public void setOnRefreshPrepareListener(@Nullable OnRefreshPrepareListener listener) {
+        if (listener == null) {
+            cancelPrediction();
+        } else if (mRefreshPredictor == null) {
+            mRefreshPredictor = new RefreshPredictor(mPullState.getTotalDragDistance());
+        }
+        mPrepareListener = listener;
+    }
+
+    /**
+     * Returns the predictor behind {@link #setOnRefreshPrepareListener}, with its hit rate and
+     * time saved, or null if speculative refresh was never turned on.
+     */
+    @Nullable
+    public RefreshPredictor getRefreshPredictor() {
+        return mRefreshPredictor;
+    }
+
+    public interface OnRefreshPrepareListener {
+        void onPrepareRefresh();
+
+        void onCancelPrepare();
+    }
+
+    public interface OnLoadMoreListener {
+        void onLoadMore();
     }
 
     public interface OnRefreshListener {
         void onRefresh();
     }
 
+    public interface OnAsyncRefreshListener {
+        @NonNull
+        CompletableFuture<?> onRefresh();
+    }
+
+    /**
+     * Overrides how the view decides whether its content can still scroll up, for
+     * example when the target wraps the real scroller. See {@link ChildScrollUpCallbacks}
+     * for built-in strategies.
+     */
+    public void setOnChildScrollUpCallback(@Nullable OnChildScrollUpCallback callback) {
+        mChildScrollUpCallback = callback;
+    }
+
+    public interface OnChildScrollUpCallback {
+        boolean canChildScrollUp(@NonNull ExpressivePullToRefresh parent, @Nullable View child);
+    }
+
     @Override
     public void onNestedScroll(@NonNull View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int type, @NonNull int[] consumed) {
-        if (type == ViewCompat.TYPE_TOUCH) {
-            onNestedScrollInternal(dyUnconsumed, type, consumed);
+        if (mGestureRecorder != null) {
+            mGestureRecorder.recordNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, type);
         }
+        onNestedScrollInternal(dyUnconsumed, type, consumed);
     }
 
     @Override
@@ -572,30 +1823,55 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
 
     @Override
     public void onNestedScrollAccepted(@NonNull View child, @NonNull View target, int axes, int type) {
-        mNestedScrollingParentHelper.onNestedScrollAccepted(child, target, axes, type);
+        if (mGestureRecorder != null) {
+            mGestureRecorder.recordNestedAccept(axes, type);
+        }
+        getNestedScrollingParentHelper().onNestedScrollAccepted(child, target, axes, type);
         startNestedScroll(axes & ViewCompat.SCROLL_AXIS_VERTICAL, type);
-        mTotalUnconsumed = 0;
-        mNestedScrollInProgress = true;
+        if (type == ViewCompat.TYPE_TOUCH) {
+            mTotalUnconsumed = 0;
+            mNestedReleaseVelocity = 0;
+            // The fling velocity arrives between the touch scroll and the non-touch one, so
+            // it is only cleared when a new touch scroll starts.
+            mNestedFlingVelocity = 0;
+            mNestedScrollInProgress = true;
+            onGestureStart();
+        } else {
+            mFlingBounced = false;
+        }
     }
 
     @Override
     public void onStopNestedScroll(@NonNull View target, int type) {
-        mNestedScrollingParentHelper.onStopNestedScroll(target, type);
-        mNestedScrollInProgress = false;
-        if (mTotalUnconsumed > 0) {
-            finishSpinner(mTotalUnconsumed);
-            mTotalUnconsumed = 0;
+        if (mGestureRecorder != null) {
+            mGestureRecorder.recordNestedStop(type);
+        }
+        getNestedScrollingParentHelper().onStopNestedScroll(target, type);
+        trace(GestureTrace.EVENT_NESTED_STOP, type);
+        if (type == ViewCompat.TYPE_TOUCH) {
+            mNestedScrollInProgress = false;
+            if (mTotalUnconsumed > 0) {
+                finishSpinner(mTotalUnconsumed, mNestedReleaseVelocity);
+                mTotalUnconsumed = 0;
+            }
+            mNestedReleaseVelocity = 0;
         }
         stopNestedScroll(type);
     }
 
     @Override
     public void onNestedScroll(@NonNull View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int type) {
+        if (mGestureRecorder != null) {
+            mGestureRecorder.recordNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, type);
+        }
         onNestedScrollInternal(dyUnconsumed, type, null);
     }
 
     @Override
     public void onNestedPreScroll(@NonNull View target, int dx, int dy, @NonNull int[] consumed, int type) {
+        if (mGestureRecorder != null) {
+            mGestureRecorder.recordNestedPreScroll(dx, dy, type);
+        }
         if (dy > 0 && mTotalUnconsumed > 0) {
             if (dy > mTotalUnconsumed) {
                 consumed[1] = (int) mTotalUnconsumed;
@@ -607,6 +1883,9 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
             moveSpinner(mTotalUnconsumed);
         }
 
+        if (mParentScrollConsumed == null) {
+            mParentScrollConsumed = new int[2];
+        }
         final int[] parentConsumed = mParentScrollConsumed;
         if (dispatchNestedPreScroll(dx - consumed[0], dy - consumed[1], parentConsumed, null, type)) {
             consumed[0] += parentConsumed[0];
@@ -616,42 +1895,47 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
 
     @Override
     public void dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, @Nullable int[] offsetInWindow, int type, @NonNull int[] consumed) {
-        mNestedScrollingChildHelper.dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow, type, consumed);
+        getNestedScrollingChildHelper().dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow, type, consumed);
     }
 
     @Override
     public boolean startNestedScroll(int axes, int type) {
-        return mNestedScrollingChildHelper.startNestedScroll(axes, type);
+        return getNestedScrollingChildHelper().startNestedScroll(axes, type);
     }
 
     @Override
     public void stopNestedScroll(int type) {
-        mNestedScrollingChildHelper.stopNestedScroll(type);
+        if (mNestedScrollingChildHelper != null) {
+            mNestedScrollingChildHelper.stopNestedScroll(type);
+        }
     }
 
     @Override
     public boolean hasNestedScrollingParent(int type) {
-        return mNestedScrollingChildHelper.hasNestedScrollingParent(type);
+        return mNestedScrollingChildHelper != null && mNestedScrollingChildHelper.hasNestedScrollingParent(type);
     }
 
     @Override
     public boolean dispatchNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, @Nullable int[] offsetInWindow, int type) {
-        return mNestedScrollingChildHelper.dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow, type);
+        return getNestedScrollingChildHelper().dispatchNestedScroll(dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, offsetInWindow, type);
     }
 
     @Override
     public boolean dispatchNestedPreScroll(int dx, int dy, @Nullable int[] consumed, @Nullable int[] offsetInWindow, int type) {
-        return mNestedScrollingChildHelper.dispatchNestedPreScroll(dx, dy, consumed, offsetInWindow, type);
+        return getNestedScrollingChildHelper().dispatchNestedPreScroll(dx, dy, consumed, offsetInWindow, type);
     }
 
     @Override
     public void setNestedScrollingEnabled(boolean enabled) {
-        mNestedScrollingChildHelper.setNestedScrollingEnabled(enabled);
+        mNestedScrollingDisabled = !enabled;
+        if (mNestedScrollingChildHelper != null) {
+            mNestedScrollingChildHelper.setNestedScrollingEnabled(enabled);
+        }
     }
 
     @Override
     public boolean isNestedScrollingEnabled() {
-        return mNestedScrollingChildHelper.isNestedScrollingEnabled();
+        return !mNestedScrollingDisabled;
     }
 
     @Override
@@ -681,61 +1965,156 @@ public class ExpressivePullToRefresh extends ViewGroup implements NestedScrollin
 
     @Override
     public boolean onNestedFling(View target, float velocityX, float velocityY, boolean consumed) {
+        if (mGestureRecorder != null) {
+            mGestureRecorder.recordNestedFling(velocityX, velocityY, consumed);
+        }
+        mNestedFlingVelocity = velocityY;
         return dispatchNestedFling(velocityX, velocityY, consumed);
     }
 
     @Override
     public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+        if (mGestureRecorder != null) {
+            mGestureRecorder.recordNestedPreFling(velocityX, velocityY);
+        }
+        if (mTotalUnconsumed > 0) {
+            // The release of a nested pull: the velocity feeds the trigger decision, and a
+            // downward fling is consumed so the child does not start flinging under the indicator.
+            mNestedReleaseVelocity = -velocityY;
+            if (velocityY < 0) {
+                return true;
+            }
+        }
         return dispatchNestedPreFling(velocityX, velocityY);
     }
 
     @Override
     public boolean dispatchNestedFling(float velocityX, float velocityY, boolean consumed) {
-        return mNestedScrollingChildHelper.dispatchNestedFling(velocityX, velocityY, consumed);
+        return getNestedScrollingChildHelper().dispatchNestedFling(velocityX, velocityY, consumed);
     }
 
     @Override
     public boolean dispatchNestedPreFling(float velocityX, float velocityY) {
-        return mNestedScrollingChildHelper.dispatchNestedPreFling(velocityX, velocityY);
+        return getNestedScrollingChildHelper().dispatchNestedPreFling(velocityX, velocityY);
     }
 
     @Override
     public int getNestedScrollAxes() {
-        return mNestedScrollingParentHelper.getNestedScrollAxes();
+        return mNestedScrollingParentHelper != null
+                ? mNestedScrollingParentHelper.getNestedScrollAxes()
+                : ViewCompat.SCROLL_AXIS_NONE;
+    }
+
+    private NestedScrollingParentHelper getNestedScrollingParentHelper() {
+        if (mNestedScrollingParentHelper == null) {
+            mNestedScrollingParentHelper = new NestedScrollingParentHelper(this);
+        }
+        return mNestedScrollingParentHelper;
+    }
+
+    /**
+     * The nested scrolling helpers are created by the first nested scroll, so instances that
+     * never take part in one do not pay for them.
+     */
+    private NestedScrollingChildHelper getNestedScrollingChildHelper() {
+        if (mNestedScrollingChildHelper == null) {
+            mNestedScrollingChildHelper = new NestedScrollingChildHelper(this);
+            mNestedScrollingChildHelper.setNestedScrollingEnabled(!mNestedScrollingDisabled);
+        }
+        return mNestedScrollingChildHelper;
     }
 
     private void onNestedScrollInternal(int dyUnconsumed, int type, @Nullable int[] consumed) {
+        trace(GestureTrace.EVENT_NESTED_SCROLL, dyUnconsumed);
+        if (dyUnconsumed > 0 && type == ViewCompat.TYPE_TOUCH && canLoadMore()) {
+            // Dragged up past the end of the content.
+            triggerLoadMore();
+        }
         if (dyUnconsumed < 0 && !canChildScrollUp()) {
-            mTotalUnconsumed += Math.abs(dyUnconsumed);
-            moveSpinner(mTotalUnconsumed);
+            if (type == ViewCompat.TYPE_TOUCH) {
+                mTotalUnconsumed += Math.abs(dyUnconsumed);
+                moveSpinner(mTotalUnconsumed);
 
-            if (consumed != null) {
-                consumed[1] += dyUnconsumed;
+                if (consumed != null) {
+                    consumed[1] += dyUnconsumed;
+                }
+            } else if (!mFlingBounced && !mPullState.isRefreshing() && !mNestedScrollInProgress
+                    && mPullState.getOffset() == mOriginalOffsetTop) {
+                mFlingBounced = true;
+                bounceFromFling(mNestedFlingVelocity);
+                mNestedFlingVelocity = 0;
             }
         }
 
-        dispatchNestedScroll(0, 0, 0, dyUnconsumed, mParentOffsetInWindow, type, consumed == null ? new int[2] : consumed);
+        if (consumed == null) {
+            // Legacy callers pass no consumed array; reuse one instead of allocating per event.
+            if (mNestedScrollConsumed == null) {
+                mNestedScrollConsumed = new int[2];
+            }
+            consumed = mNestedScrollConsumed;
+            consumed[0] = 0;
+            consumed[1] = 0;
+        }
+        dispatchNestedScroll(0, 0, 0, dyUnconsumed, null, type, consumed);
     }
 
     private void moveSpinner(float overscroll) {
-        float scrollTop = overscroll * DRAG_RATE;
-        float boundedDragPercent = Math.min(1f, Math.abs(scrollTop / mTotalDragDistance));
-        float extraOS = Math.abs(scrollTop) - mTotalDragDistance;
-        float tensionSlingshotPercent = Math.max(0, Math.min(extraOS, mTotalDragDistance * 2) / mTotalDragDistance);
-        float tensionPercent = (float) ((tensionSlingshotPercent / 4) - Math.pow(tensionSlingshotPercent / 4, 2)) * 2f;
-        float extraMove = mTotalDragDistance * tensionPercent / 2;
-        int targetY = (int) ((mTotalDragDistance * boundedDragPercent) + extraMove);
+        if (mFrameStatsListener != null) {
+            if (mFrameMonitor == null) {
+                mFrameMonitor = new PullFrameMonitor(mFrameStatsListener);
+            }
+            mFrameMonitor.start(getFrameBudgetNanos());
+        }
+        int targetY = mPullState.onPull(overscroll);
+        trace(GestureTrace.EVENT_PULL, targetY);
+        updateFrameRateVote();
+        if (mPrepareListener != null && !mPullState.isRefreshing()
+                && mRefreshPredictor.onPull(overscroll * PullStateMachine.DRAG_RATE, System.nanoTime())) {
+            trace(GestureTrace.EVENT_PREPARE, targetY);
+            mPrepareListener.onPrepareRefresh();
+        }
 
-        setTargetOffsetTop(targetY - mCurrentTargetOffsetTop);
+        if (mCoalesceInput) {
+            updateThreshold(targetY);
+            mPendingOffset = targetY;
+            if (!mCoalescePending) {
+                mCoalescePending = true;
+                if (mCoalesceFrameCallback == null) {
+                    mCoalesceFrameCallback = frameTimeNanos -> applyPendingOffset();
+                }
+                Choreographer.getInstance().postFrameCallback(mCoalesceFrameCallback);
+            }
+        } else {
+            setTargetOffsetTop(targetY - mPullState.getOffset());
+        }
     }
 
-    private void finishSpinner(float overscroll) {
-        float scrollTop = overscroll * DRAG_RATE;
-        if (scrollTop > mTotalDragDistance) {
+    private void finishSpinner(float overscroll, float velocityY) {
+        flushPendingOffset();
+        if (mMetricsListener != null) {
+            mReleaseNanos = System.nanoTime();
+        }
+        mReleaseVelocity = velocityY;
+        trace(GestureTrace.EVENT_RELEASE, (int) velocityY);
+        final boolean trigger = mPullState.onRelease(overscroll, velocityY);
+        final boolean predicted = mPrepareListener != null
+                && mRefreshPredictor.onRelease(trigger, System.nanoTime());
+        if (trigger) {
             setRefreshing(true, true);
         } else {
-            mRefreshing = false;
             animateOffsetToStartPosition();
         }
+        mReleaseVelocity = 0;
+        updateFrameRateVote();
+        if (predicted && !(trigger && mNotify)) {
+            // Backed off, or the refresh policy skipped the refresh.
+            mPrepareListener.onCancelPrepare();
+        }
+    }
+
+    private void cancelPrediction() {
+        if (mPrepareListener != null && mRefreshPredictor.onRelease(false, System.nanoTime())) {
+            mPrepareListener.onCancelPrepare();
+        }
     }
 }
\ No newline at end of file
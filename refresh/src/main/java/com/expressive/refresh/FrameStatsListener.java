@@ -0,0 +1,16 @@
+package com.expressive.refresh;
+
+/**
+ * Receives frame timing for one pull of {@link ExpressivePullToRefresh}, measured from the
+ * first drag sample until the indicator has settled back to its start position.
+ */
+public interface FrameStatsListener {
+
+    /**
+     * @param frameCount number of frames rendered during the pull
+     * @param jankyFrameCount frames that took more than one and a half frame budgets
+     * @param maxFrameNanos longest frame interval
+     * @param totalNanos time between the first and the last frame
+     */
+    void onPullFrameStats(int frameCount, int jankyFrameCount, long maxFrameNanos, long totalNanos);
+}
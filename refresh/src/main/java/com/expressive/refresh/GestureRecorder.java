@@ -0,0 +1,179 @@
+package com.expressive.refresh;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import androidx.annotation.NonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records the touch and nested scrolling input that reaches an {@link ExpressivePullToRefresh}
+ * into a compact binary stream that the test-side {@code GestureReplayer} can feed back into
+ * a view.
+ *
+ * Format (big-endian): the int {@link #MAGIC} and the short {@link #VERSION}, then one record
+ * per input. Each record starts with a type byte and the milliseconds since the previous
+ * record as an int. Motion records are timed by {@link MotionEvent#getEventTime()}, other
+ * records by {@link SystemClock#uptimeMillis()} when they arrive; both share the uptime base.
+ * <ul>
+ * <li>{@link #RECORD_MOTION}: masked action byte, action index byte, pointer count byte,
+ * an id byte per pointer, the historical sample count as a short, then per historical
+ * sample (oldest first) its age before the event time as an int and x, y floats per
+ * pointer, and finally x, y floats per pointer for the current sample</li>
+ * <li>{@link #RECORD_NESTED_ACCEPT}: axes byte, type byte</li>
+ * <li>{@link #RECORD_NESTED_PRE_SCROLL}: dx, dy ints, type byte</li>
+ * <li>{@link #RECORD_NESTED_SCROLL}: dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed ints, type byte</li>
+ * <li>{@link #RECORD_NESTED_STOP}: type byte</li>
+ * <li>{@link #RECORD_NESTED_PRE_FLING}: velocityX, velocityY floats</li>
+ * <li>{@link #RECORD_NESTED_FLING}: velocityX, velocityY floats, consumed boolean</li>
+ * </ul>
+ * Recording writes into an in-memory buffer on the main thread and does not allocate per
+ * event once the buffer has grown to the size of the gesture.
+ */
+public class GestureRecorder {
+
+    public static final int MAGIC = 0x45505452;
+    public static final short VERSION = 2;
+
+    static final byte RECORD_MOTION = 1;
+    static final byte RECORD_NESTED_ACCEPT = 2;
+    static final byte RECORD_NESTED_PRE_SCROLL = 3;
+    static final byte RECORD_NESTED_SCROLL = 4;
+    static final byte RECORD_NESTED_STOP = 5;
+    static final byte RECORD_NESTED_PRE_FLING = 6;
+    static final byte RECORD_NESTED_FLING = 7;
+
+    private final ByteArrayOutputStream mBuffer = new ByteArrayOutputStream(4096);
+    private final DataOutputStream mOut = new DataOutputStream(mBuffer);
+    private long mLastTime;
+
+    public GestureRecorder() {
+        clear();
+    }
+
+    /**
+     * Drops everything recorded so far and starts a new stream.
+     */
+    public void clear() {
+        mBuffer.reset();
+        mLastTime = 0;
+        try {
+            mOut.writeInt(MAGIC);
+            mOut.writeShort(VERSION);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @NonNull
+    public byte[] toByteArray() {
+        return mBuffer.toByteArray();
+    }
+
+    public void writeTo(@NonNull OutputStream out) throws IOException {
+        mBuffer.writeTo(out);
+    }
+
+    void recordMotionEvent(MotionEvent ev) {
+        try {
+            final long eventTime = ev.getEventTime();
+            writeHeader(RECORD_MOTION, eventTime);
+            final int pointerCount = ev.getPointerCount();
+            mOut.writeByte(ev.getActionMasked());
+            mOut.writeByte(ev.getActionIndex());
+            mOut.writeByte(pointerCount);
+            for (int i = 0; i < pointerCount; i++) {
+                mOut.writeByte(ev.getPointerId(i));
+            }
+            final int historySize = ev.getHistorySize();
+            mOut.writeShort(historySize);
+            for (int h = 0; h < historySize; h++) {
+                mOut.writeInt((int) (eventTime - ev.getHistoricalEventTime(h)));
+                for (int i = 0; i < pointerCount; i++) {
+                    mOut.writeFloat(ev.getHistoricalX(i, h));
+                    mOut.writeFloat(ev.getHistoricalY(i, h));
+                }
+            }
+            for (int i = 0; i < pointerCount; i++) {
+                mOut.writeFloat(ev.getX(i));
+                mOut.writeFloat(ev.getY(i));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void recordNestedAccept(int axes, int type) {
+        try {
+            writeHeader(RECORD_NESTED_ACCEPT, SystemClock.uptimeMillis());
+            mOut.writeByte(axes);
+            mOut.writeByte(type);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void recordNestedPreScroll(int dx, int dy, int type) {
+        try {
+            writeHeader(RECORD_NESTED_PRE_SCROLL, SystemClock.uptimeMillis());
+            mOut.writeInt(dx);
+            mOut.writeInt(dy);
+            mOut.writeByte(type);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void recordNestedScroll(int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int type) {
+        try {
+            writeHeader(RECORD_NESTED_SCROLL, SystemClock.uptimeMillis());
+            mOut.writeInt(dxConsumed);
+            mOut.writeInt(dyConsumed);
+            mOut.writeInt(dxUnconsumed);
+            mOut.writeInt(dyUnconsumed);
+            mOut.writeByte(type);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void recordNestedStop(int type) {
+        try {
+            writeHeader(RECORD_NESTED_STOP, SystemClock.uptimeMillis());
+            mOut.writeByte(type);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void recordNestedPreFling(float velocityX, float velocityY) {
+        try {
+            writeHeader(RECORD_NESTED_PRE_FLING, SystemClock.uptimeMillis());
+            mOut.writeFloat(velocityX);
+            mOut.writeFloat(velocityY);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void recordNestedFling(float velocityX, float velocityY, boolean consumed) {
+        try {
+            writeHeader(RECORD_NESTED_FLING, SystemClock.uptimeMillis());
+            mOut.writeFloat(velocityX);
+            mOut.writeFloat(velocityY);
+            mOut.writeBoolean(consumed);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void writeHeader(byte type, long time) throws IOException {
+        mOut.writeByte(type);
+        mOut.writeInt(mLastTime == 0 ? 0 : (int) (time - mLastTime));
+        mLastTime = time;
+    }
+}
@@ -0,0 +1,66 @@
+package com.expressive.refresh;
+
+import android.view.Choreographer;
+
+/**
+ * Measures frame intervals with {@link Choreographer} callbacks between {@link #start(long)}
+ * and {@link #stop()}. Nothing is posted while it is not running.
+ */
+final class PullFrameMonitor implements Choreographer.FrameCallback {
+
+    private final FrameStatsListener mListener;
+
+    private boolean mRunning;
+    private long mFrameBudgetNanos;
+    private long mFirstFrameNanos;
+    private long mLastFrameNanos;
+    private int mFrameCount;
+    private int mJankyFrameCount;
+    private long mMaxFrameNanos;
+
+    PullFrameMonitor(FrameStatsListener listener) {
+        mListener = listener;
+    }
+
+    void start(long frameBudgetNanos) {
+        if (mRunning) {
+            return;
+        }
+        mRunning = true;
+        mFrameBudgetNanos = frameBudgetNanos;
+        mFirstFrameNanos = 0;
+        mLastFrameNanos = 0;
+        mFrameCount = 0;
+        mJankyFrameCount = 0;
+        mMaxFrameNanos = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    void stop() {
+        if (!mRunning) {
+            return;
+        }
+        mRunning = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+        mListener.onPullFrameStats(mFrameCount, mJankyFrameCount, mMaxFrameNanos,
+                mLastFrameNanos - mFirstFrameNanos);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (mLastFrameNanos == 0) {
+            mFirstFrameNanos = frameTimeNanos;
+        } else {
+            final long frameNanos = frameTimeNanos - mLastFrameNanos;
+            mFrameCount++;
+            if (frameNanos * 2 > mFrameBudgetNanos * 3) {
+                mJankyFrameCount++;
+            }
+            if (frameNanos > mMaxFrameNanos) {
+                mMaxFrameNanos = frameNanos;
+            }
+        }
+        mLastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+}
@@ -0,0 +1,108 @@
+package com.expressive.refresh;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.os.PowerManager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.core.content.ContextCompat;
+
+import java.util.ArrayList;
+
+/**
+ * Process-wide watcher of battery saver and, on API 29+, thermal status for views with
+ * adaptive quality enabled. One receiver and one thermal listener serve every registered
+ * view; both are registered with the first view and removed with the last. Used from the
+ * main thread only.
+ */
+final class QualityMonitor {
+
+    private static QualityMonitor sInstance;
+
+    private final Context mContext;
+    private final PowerManager mPowerManager;
+    private final ArrayList<ExpressivePullToRefresh> mViews = new ArrayList<>();
+    private final BroadcastReceiver mPowerSaveReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            update();
+        }
+    };
+    private PowerManager.OnThermalStatusChangedListener mThermalListener;
+    private boolean mDegraded;
+
+    private QualityMonitor(Context context) {
+        mContext = context;
+        mPowerManager = context.getSystemService(PowerManager.class);
+    }
+
+    @NonNull
+    static QualityMonitor get(@NonNull Context context) {
+        if (sInstance == null) {
+            sInstance = new QualityMonitor(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    /**
+     * True while battery saver is on or the device reports moderate or worse throttling.
+     */
+    boolean isDegraded() {
+        return mDegraded;
+    }
+
+    @VisibleForTesting
+    boolean isRegistered(ExpressivePullToRefresh view) {
+        return mViews.contains(view);
+    }
+
+    void register(ExpressivePullToRefresh view) {
+        if (mViews.contains(view)) {
+            return;
+        }
+        mViews.add(view);
+        if (mViews.size() == 1) {
+            ContextCompat.registerReceiver(mContext, mPowerSaveReceiver,
+                    new IntentFilter(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED),
+                    ContextCompat.RECEIVER_NOT_EXPORTED);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && mPowerManager != null) {
+                if (mThermalListener == null) {
+                    mThermalListener = status -> update();
+                }
+                mPowerManager.addThermalStatusListener(mContext.getMainExecutor(), mThermalListener);
+            }
+            mDegraded = readDegraded();
+        }
+    }
+
+    void unregister(ExpressivePullToRefresh view) {
+        if (mViews.remove(view) && mViews.isEmpty()) {
+            mContext.unregisterReceiver(mPowerSaveReceiver);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && mThermalListener != null
+                    && mPowerManager != null) {
+                mPowerManager.removeThermalStatusListener(mThermalListener);
+            }
+            mDegraded = false;
+        }
+    }
+
+    private void update() {
+        final boolean degraded = readDegraded();
+        if (degraded != mDegraded) {
+            mDegraded = degraded;
+            for (int i = 0; i < mViews.size(); i++) {
+                mViews.get(i).onQualityChanged();
+            }
+        }
+    }
+
+    private boolean readDegraded() {
+        return mPowerManager != null && (mPowerManager.isPowerSaveMode()
+                || (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                && mPowerManager.getCurrentThermalStatus() >= PowerManager.THERMAL_STATUS_MODERATE));
+    }
+}
@@ -0,0 +1,118 @@
+package com.expressive.refresh;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shares async refreshes between {@link ExpressivePullToRefresh} instances that show the
+ * same data, for example several pages of a ViewPager2 backed by one backend resource.
+ *
+ * Views join a coordinator with {@link ExpressivePullToRefresh#setRefreshKey(String)} while
+ * they are attached. The first pull on any of them calls its
+ * {@link ExpressivePullToRefresh.OnAsyncRefreshListener}; pulls on the others while that
+ * future is running join it instead of starting another fetch. Every joined view shows its
+ * indicator for as long as the shared refresh runs, and its completion is delivered to all
+ * of them in a single main-thread message. Coordinators are used from the main thread only.
+ */
+public final class RefreshCoordinator {
+
+    private static final Map<String, RefreshCoordinator> sCoordinators = new HashMap<>();
+    private static Handler sMainHandler;
+
+    private final String mKey;
+    private final ArrayList<ExpressivePullToRefresh> mViews = new ArrayList<>();
+    private CompletableFuture<?> mInFlightRefresh;
+
+    private RefreshCoordinator(String key) {
+        mKey = key;
+    }
+
+    /**
+     * Returns the process-wide coordinator for a data key, creating it on first use.
+     */
+    @NonNull
+    public static RefreshCoordinator forKey(@NonNull String key) {
+        synchronized (sCoordinators) {
+            RefreshCoordinator coordinator = sCoordinators.get(key);
+            if (coordinator == null) {
+                coordinator = new RefreshCoordinator(key);
+                sCoordinators.put(key, coordinator);
+            }
+            return coordinator;
+        }
+    }
+
+    @NonNull
+    public String getKey() {
+        return mKey;
+    }
+
+    public boolean isRefreshing() {
+        return mInFlightRefresh != null;
+    }
+
+    void register(ExpressivePullToRefresh view) {
+        if (!mViews.contains(view)) {
+            mViews.add(view);
+            if (mInFlightRefresh != null) {
+                view.onCoordinatedRefreshStarted(mInFlightRefresh);
+            }
+        }
+    }
+
+    /**
+     * Removes a detached view. The shared refresh is cancelled once no view is left to show it.
+     */
+    void unregister(ExpressivePullToRefresh view) {
+        if (mViews.remove(view) && mViews.isEmpty() && mInFlightRefresh != null) {
+            final CompletableFuture<?> refresh = mInFlightRefresh;
+            mInFlightRefresh = null;
+            refresh.cancel(true);
+        }
+    }
+
+    /**
+     * Returns the running shared refresh, or starts one through {@code listener} and shows
+     * it on every other registered view.
+     */
+    CompletableFuture<?> join(ExpressivePullToRefresh initiator,
+            ExpressivePullToRefresh.OnAsyncRefreshListener listener) {
+        if (mInFlightRefresh != null) {
+            return mInFlightRefresh;
+        }
+        final CompletableFuture<?> refresh = listener.onRefresh();
+        mInFlightRefresh = refresh;
+        refresh.whenComplete((result, error) ->
+                getMainHandler().post(() -> onRefreshComplete(refresh, error == null)));
+        for (int i = mViews.size() - 1; i >= 0; i--) {
+            final ExpressivePullToRefresh view = mViews.get(i);
+            if (view != initiator) {
+                view.onCoordinatedRefreshStarted(refresh);
+            }
+        }
+        return refresh;
+    }
+
+    private void onRefreshComplete(CompletableFuture<?> refresh, boolean success) {
+        if (mInFlightRefresh == refresh) {
+            mInFlightRefresh = null;
+        }
+        for (int i = mViews.size() - 1; i >= 0; i--) {
+            mViews.get(i).onAsyncRefreshComplete(refresh, success);
+        }
+    }
+
+    private static synchronized Handler getMainHandler() {
+        if (sMainHandler == null) {
+            sMainHandler = new Handler(Looper.getMainLooper());
+        }
+        return sMainHandler;
+    }
+}
@@ -0,0 +1,132 @@
+package com.expressive.refresh;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decides whether a pull on {@link ExpressivePullToRefresh} should reach the refresh
+ * listener, based on how recently the data was refreshed.
+ *
+ * A policy can be owned by one view or shared through {@link #forKey(String)} by every
+ * view showing the same data source. All times are in milliseconds of
+ * {@link SystemClock#elapsedRealtime()}, and all durations default to zero (disabled).
+ */
+public class RefreshPolicy {
+
+    private static final long NEVER = Long.MIN_VALUE;
+    private static final Map<String, RefreshPolicy> sKeyedPolicies = new HashMap<>();
+
+    private volatile long mTimeToLive;
+    private volatile long mDebounceInterval;
+    private volatile long mMinimumInterval;
+    private volatile boolean mRefreshOnAttachWhenStale;
+
+    private long mLastSuccess = NEVER;
+    private long mLastTrigger = NEVER;
+    private long mLastRefreshStart = NEVER;
+
+    /**
+     * Returns the process-wide policy for a data source id, creating it on first use.
+     */
+    @NonNull
+    public static RefreshPolicy forKey(@NonNull String key) {
+        synchronized (sKeyedPolicies) {
+            RefreshPolicy policy = sKeyedPolicies.get(key);
+            if (policy == null) {
+                policy = new RefreshPolicy();
+                sKeyedPolicies.put(key, policy);
+            }
+            return policy;
+        }
+    }
+
+    /**
+     * Data refreshed successfully less than this long ago is considered fresh, and pulls
+     * settle with a short "already up to date" animation instead of refreshing.
+     */
+    public void setTimeToLive(long millis) {
+        mTimeToLive = millis;
+    }
+
+    public long getTimeToLive() {
+        return mTimeToLive;
+    }
+
+    /**
+     * Pulls made less than this long after the previous pull, refreshed or not, are ignored.
+     */
+    public void setDebounceInterval(long millis) {
+        mDebounceInterval = millis;
+    }
+
+    public long getDebounceInterval() {
+        return mDebounceInterval;
+    }
+
+    /**
+     * Minimum time between two refreshes that reach the listener, whatever their outcome.
+     */
+    public void setMinimumInterval(long millis) {
+        mMinimumInterval = millis;
+    }
+
+    public long getMinimumInterval() {
+        return mMinimumInterval;
+    }
+
+    /**
+     * When enabled, views using this policy start a refresh when they are attached while
+     * the data is stale.
+     */
+    public void setRefreshOnAttachWhenStale(boolean enabled) {
+        mRefreshOnAttachWhenStale = enabled;
+    }
+
+    public boolean isRefreshOnAttachWhenStale() {
+        return mRefreshOnAttachWhenStale;
+    }
+
+    /**
+     * Records a successful refresh. The view calls this itself when a refresh it started ends,
+     * but it can also be called when the data was refreshed through other means.
+     */
+    public synchronized void markRefreshed() {
+        mLastSuccess = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Forgets the last successful refresh so the next pull always refreshes.
+     */
+    public synchronized void invalidate() {
+        mLastSuccess = NEVER;
+    }
+
+    public synchronized boolean isFresh() {
+        return isFresh(SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * Registers a pull and returns whether it should reach the refresh listener.
+     */
+    synchronized boolean shouldRefresh() {
+        final long now = SystemClock.elapsedRealtime();
+        final boolean debounced = mLastTrigger != NEVER && now - mLastTrigger < mDebounceInterval;
+        mLastTrigger = now;
+        if (debounced || isFresh(now)) {
+            return false;
+        }
+        if (mLastRefreshStart != NEVER && now - mLastRefreshStart < mMinimumInterval) {
+            return false;
+        }
+        mLastRefreshStart = now;
+        return true;
+    }
+
+    private boolean isFresh(long now) {
+        return mLastSuccess != NEVER && now - mLastSuccess < mTimeToLive;
+    }
+}
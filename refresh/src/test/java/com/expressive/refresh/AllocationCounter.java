@@ -0,0 +1,33 @@
+package com.expressive.refresh;
+
+import org.junit.Assume;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the bytes allocated so far by the calling thread, as reported by HotSpot's
+ * {@code com.sun.management.ThreadMXBean}. Tests call {@link #assumeSupported()} first so
+ * they are skipped, not failed, on JVMs without per-thread allocation accounting.
+ */
+final class AllocationCounter {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private AllocationCounter() {
+    }
+
+    static boolean isSupported() {
+        return THREADS instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemorySupported()
+                && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemoryEnabled();
+    }
+
+    static void assumeSupported() {
+        Assume.assumeTrue("per-thread allocation accounting is not available", isSupported());
+    }
+
+    static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,148 @@
+package com.expressive.refresh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.animation.ValueAnimator;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.util.List;
+
+/**
+ * Full pull, trigger and settle cycles run through the view's single offset animator: the
+ * animator and all of its listeners are reused, and once warmed up a complete cycle,
+ * including animation start, every frame and the end callbacks, allocates nothing.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class AnimationAllocationTest {
+
+    private static final int CYCLES = 20;
+    private static final int MEASURED_CYCLES = 2;
+    private static final int FRAMES = 60;
+    private static final int PULL_SAMPLES = 30;
+
+    private ExpressivePullToRefresh mView;
+    private int mRefreshes;
+
+    @Before
+    public void setUp() {
+        final PullTestHarness harness = new PullTestHarness();
+        mView = harness.attach(new ExpressivePullToRefresh(harness.context));
+        mView.setOnRefreshListener(() -> mRefreshes++);
+    }
+
+    @Test
+    public void cyclesReuseOneAnimatorAndItsListeners() {
+        runCycle();
+        final ValueAnimator animator = mView.getOffsetAnimator();
+        assertNotNull(animator);
+        final int listeners = animator.getListeners().size();
+        final int updateListeners = getUpdateListeners(animator).size();
+        assertEquals(1, updateListeners);
+
+        for (int i = 0; i < CYCLES; i++) {
+            runCycle();
+            assertSame(animator, mView.getOffsetAnimator());
+            assertEquals(listeners, animator.getListeners().size());
+            assertEquals(updateListeners, getUpdateListeners(animator).size());
+        }
+    }
+
+    @Test
+    public void pullTriggerSettleCyclesDoNotAllocate() {
+        AllocationCounter.assumeSupported();
+        // Warm-up: inflates the indicator, creates the animator and fills framework pools.
+        final MotionEvent[][] warmUp = new MotionEvent[MEASURED_CYCLES][];
+        final MotionEvent[][] measured = new MotionEvent[MEASURED_CYCLES][];
+        for (int i = 0; i < MEASURED_CYCLES; i++) {
+            warmUp[i] = obtainPull();
+            measured[i] = obtainPull();
+        }
+        for (MotionEvent[] pull : warmUp) {
+            runSteppedCycle(pull);
+        }
+        PullTestHarness.idle();
+        final int refreshes = mRefreshes;
+
+        final long before = AllocationCounter.allocatedBytes();
+        for (MotionEvent[] pull : measured) {
+            runSteppedCycle(pull);
+        }
+        final long allocated = AllocationCounter.allocatedBytes() - before;
+
+        assertEquals("bytes allocated by " + MEASURED_CYCLES + " pull/trigger/settle cycles", 0, allocated);
+        assertEquals(refreshes + MEASURED_CYCLES, mRefreshes);
+        assertFalse(mView.isRefreshing());
+        recycle(warmUp);
+        recycle(measured);
+    }
+
+    private void runCycle() {
+        PullTestHarness.drag(mView, 100f, 1000f, PULL_SAMPLES, 300, true);
+        PullTestHarness.advance(1000);
+        mView.setRefreshing(false);
+        PullTestHarness.advance(1000);
+    }
+
+    /**
+     * Pulls past the threshold with pre-built events and releases, steps the trigger
+     * animation to its end, then finishes the refresh and steps the settle animation to its
+     * end. Frames are run on the calling thread exactly as a Choreographer frame would run
+     * them, so nothing outside the view's own work is measured.
+     */
+    private void runSteppedCycle(MotionEvent[] pull) {
+        for (MotionEvent event : pull) {
+            mView.dispatchTouchEvent(event);
+        }
+        assertTrue(mView.isRefreshing());
+        stepToEnd(mView.getOffsetAnimator());
+
+        mView.setRefreshing(false);
+        stepToEnd(mView.getOffsetAnimator());
+        assertFalse(mView.isRefreshing());
+    }
+
+    private static void stepToEnd(ValueAnimator animator) {
+        assertTrue(animator.isStarted());
+        for (int i = 1; i < FRAMES; i++) {
+            animator.setCurrentFraction((float) i / FRAMES);
+        }
+        animator.end();
+    }
+
+    private static MotionEvent[] obtainPull() {
+        final MotionEvent[] events = new MotionEvent[PULL_SAMPLES + 2];
+        final long downTime = SystemClock.uptimeMillis();
+        final float x = PullTestHarness.WIDTH / 2f;
+        events[0] = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, x, 100f, 0);
+        for (int i = 1; i <= PULL_SAMPLES; i++) {
+            events[i] = MotionEvent.obtain(downTime, downTime + 10L * i, MotionEvent.ACTION_MOVE,
+                    x, 100f + 900f * i / PULL_SAMPLES, 0);
+        }
+        events[PULL_SAMPLES + 1] = MotionEvent.obtain(downTime, downTime + 10L * PULL_SAMPLES,
+                MotionEvent.ACTION_UP, x, 1000f, 0);
+        return events;
+    }
+
+    private static void recycle(MotionEvent[][] pulls) {
+        for (MotionEvent[] pull : pulls) {
+            for (MotionEvent event : pull) {
+                event.recycle();
+            }
+        }
+    }
+
+    private static List<?> getUpdateListeners(ValueAnimator animator) {
+        return ReflectionHelpers.getField(animator, "mUpdateListeners");
+    }
+}
@@ -0,0 +1,166 @@
+package com.expressive.refresh;
+
+import android.view.MotionEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Synthetic recordings of representative gestures, written in the {@link GestureRecorder}
+ * format. Coordinates are in pixels of the 1080x1920 mdpi window used by
+ * {@link PullTestHarness}, where the refresh threshold is a 120px pull.
+ */
+final class GestureCorpus {
+
+    private static final float CENTER_X = PullTestHarness.WIDTH / 2f;
+
+    private GestureCorpus() {
+    }
+
+    /**
+     * One finger pulls 700px down over 1.4s and lifts slowly: refreshes on distance. The
+     * panel samples at 120 Hz and input is delivered once per 60 Hz frame, so every move
+     * carries one historical sample.
+     */
+    static byte[] slowPull() {
+        final Writer out = new Writer();
+        out.touch(0, MotionEvent.ACTION_DOWN, CENTER_X, 200f);
+        for (int i = 1; i <= 84; i++) {
+            out.batchedMove(16, 8, CENTER_X, 200f + 700f * (2 * i - 1) / 168, 200f + 700f * i / 84);
+        }
+        out.touch(16, MotionEvent.ACTION_UP, CENTER_X, 900f);
+        return out.toByteArray();
+    }
+
+    /**
+     * A 100px flick in 40ms, sampled at 240 Hz and delivered at 120 Hz: short of the
+     * distance threshold, refreshes on velocity.
+     */
+    static byte[] flick() {
+        final Writer out = new Writer();
+        out.touch(0, MotionEvent.ACTION_DOWN, CENTER_X, 300f);
+        for (int i = 1; i <= 5; i++) {
+            out.batchedMove(8, 4, CENTER_X, 300f + 100f * (2 * i - 1) / 10, 300f + 100f * i / 5);
+        }
+        out.touch(0, MotionEvent.ACTION_UP, CENTER_X, 400f);
+        return out.toByteArray();
+    }
+
+    /**
+     * A second finger lands during the pull and takes over when the first one lifts. The
+     * pull ends 400px below the first finger's down position and refreshes.
+     */
+    static byte[] multiPointerPull() {
+        final Writer out = new Writer();
+        out.touch(0, MotionEvent.ACTION_DOWN, CENTER_X, 200f);
+        for (int i = 1; i <= 4; i++) {
+            out.touch(16, MotionEvent.ACTION_MOVE, CENTER_X, 200f + 15f * i);
+        }
+        // Pointer 1 lands where pointer 0 is and becomes the active pointer.
+        out.twoFingers(16, MotionEvent.ACTION_POINTER_DOWN, 1, 260f, 260f);
+        for (int i = 1; i <= 15; i++) {
+            final float y = 260f + 16f * i;
+            out.twoFingers(16, MotionEvent.ACTION_MOVE, 0, y, y);
+        }
+        out.twoFingers(16, MotionEvent.ACTION_POINTER_UP, 0, 500f, 500f);
+        for (int i = 1; i <= 5; i++) {
+            out.finger(16, MotionEvent.ACTION_MOVE, 1, CENTER_X + 40f, 500f + 20f * i);
+        }
+        out.finger(16, MotionEvent.ACTION_UP, 1, CENTER_X + 40f, 600f);
+        return out.toByteArray();
+    }
+
+    /**
+     * An 800px right-to-left swipe in 150ms with a little vertical drift, as when paging a
+     * ViewPager2: never starts a pull.
+     */
+    static byte[] horizontalSwipe() {
+        final Writer out = new Writer();
+        out.touch(0, MotionEvent.ACTION_DOWN, 900f, 500f);
+        for (int i = 1; i <= 15; i++) {
+            out.touch(10, MotionEvent.ACTION_MOVE, 900f - 800f * i / 15, 500f + 20f * i / 15);
+        }
+        out.touch(0, MotionEvent.ACTION_UP, 100f, 520f);
+        return out.toByteArray();
+    }
+
+    private static final class Writer {
+        private final ByteArrayOutputStream mBuffer = new ByteArrayOutputStream();
+        private final DataOutputStream mOut = new DataOutputStream(mBuffer);
+
+        Writer() {
+            try {
+                mOut.writeInt(GestureRecorder.MAGIC);
+                mOut.writeShort(GestureRecorder.VERSION);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void touch(int deltaMillis, int action, float x, float y) {
+            finger(deltaMillis, action, 0, x, y);
+        }
+
+        void finger(int deltaMillis, int action, int pointerId, float x, float y) {
+            try {
+                header(deltaMillis, action, 0, 1);
+                mOut.writeByte(pointerId);
+                mOut.writeShort(0);
+                position(x, y);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * A single-pointer move whose historical sample at {@code historyY} is
+         * {@code historyAgeMillis} older than the current one at {@code y}.
+         */
+        void batchedMove(int deltaMillis, int historyAgeMillis, float x, float historyY, float y) {
+            try {
+                header(deltaMillis, MotionEvent.ACTION_MOVE, 0, 1);
+                mOut.writeByte(0);
+                mOut.writeShort(1);
+                mOut.writeInt(historyAgeMillis);
+                position(x, historyY);
+                position(x, y);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Pointer 0 at the center and pointer 1 40px to its right.
+         */
+        void twoFingers(int deltaMillis, int action, int actionIndex, float y0, float y1) {
+            try {
+                header(deltaMillis, action, actionIndex, 2);
+                mOut.writeByte(0);
+                mOut.writeByte(1);
+                mOut.writeShort(0);
+                position(CENTER_X, y0);
+                position(CENTER_X + 40f, y1);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void header(int deltaMillis, int action, int actionIndex, int pointerCount) throws IOException {
+            mOut.writeByte(GestureRecorder.RECORD_MOTION);
+            mOut.writeInt(deltaMillis);
+            mOut.writeByte(action);
+            mOut.writeByte(actionIndex);
+            mOut.writeByte(pointerCount);
+        }
+
+        private void position(float x, float y) throws IOException {
+            mOut.writeFloat(x);
+            mOut.writeFloat(y);
+        }
+
+        byte[] toByteArray() {
+            return mBuffer.toByteArray();
+        }
+    }
+}
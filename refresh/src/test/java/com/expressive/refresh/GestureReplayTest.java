@@ -0,0 +1,310 @@
+package com.expressive.refresh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.ListView;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.viewpager2.widget.ViewPager2;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+
+/**
+ * Regression suite over {@link GestureCorpus}: every gesture is replayed through an
+ * {@link ExpressivePullToRefresh} hosting a ScrollView, a ListView and a RecyclerView, and the
+ * horizontal swipe also inside a ViewPager2 page. Each replay checks the final state and a
+ * per-gesture budget for allocated bytes and wall time.
+ *
+ * Budgets come from a baseline run of the same recording, in the same test, through the
+ * same content hosted in a plain FrameLayout, so they follow the framework's own cost of
+ * dispatching that gesture on the test JVM. Both runs are measured after one warm-up replay.
+ * The pull-to-refresh view may add {@link #REFRESH_START_BYTES} on top of the baseline, for
+ * the Material indicator starting its animation, and nothing per event.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class GestureReplayTest {
+
+    private static final long REFRESH_START_BYTES = 1024;
+    private static final long TIME_FACTOR = 3;
+    private static final long TIME_SLACK_NANOS = 2_000_000L;
+    private static final int ITEMS = 100;
+
+    private enum Host { SCROLL_VIEW, LIST_VIEW, RECYCLER_VIEW }
+
+    @Before
+    public void setUp() {
+        AllocationCounter.assumeSupported();
+    }
+
+    @Test
+    public void slowPullRefreshes() throws IOException {
+        for (Host host : Host.values()) {
+            assertRefreshes("slowPull", GestureCorpus.slowPull(), host);
+        }
+    }
+
+    @Test
+    public void flickRefreshes() throws IOException {
+        for (Host host : Host.values()) {
+            assertRefreshes("flick", GestureCorpus.flick(), host);
+        }
+    }
+
+    @Test
+    public void multiPointerPullRefreshes() throws IOException {
+        for (Host host : Host.values()) {
+            assertRefreshes("multiPointerPull", GestureCorpus.multiPointerPull(), host);
+        }
+    }
+
+    @Test
+    public void horizontalSwipeDoesNotPull() throws IOException {
+        final byte[] recording = GestureCorpus.horizontalSwipe();
+        for (Host host : Host.values()) {
+            final String message = "horizontalSwipe on " + host;
+            final Measurement baseline = measureBaseline(recording, host);
+
+            final PullTestHarness harness = new PullTestHarness();
+            final int[] refreshes = new int[1];
+            final ExpressivePullToRefresh view = createView(harness, refreshes);
+            final View content = createContent(harness.context, host);
+            harness.attach(view, content);
+
+            new GestureReplayer(recording).replay(view, view, content);
+            PullTestHarness.advance(1000);
+            final Measurement measured = measure(recording, view, view, content);
+            PullTestHarness.advance(1000);
+
+            assertWithinBudget(message, baseline, measured, 0);
+            assertFalse(message, view.isRefreshing());
+            assertEquals(message, 0, refreshes[0]);
+            assertIndicatorHidden(message, view);
+        }
+    }
+
+    @Test
+    public void horizontalSwipeInViewPager2ChangesPage() throws IOException {
+        final byte[] recording = GestureCorpus.horizontalSwipe();
+        final PullTestHarness baselineHarness = new PullTestHarness();
+        final View[] baselinePages = new View[2];
+        final ViewPager2 baselinePager = createPager(baselineHarness, baselinePages, null);
+        new GestureReplayer(recording).replay(baselinePager, null, baselinePager);
+        PullTestHarness.advance(1000);
+        baselinePager.setCurrentItem(0, false);
+        PullTestHarness.idle();
+        final Measurement baseline = measure(recording, baselinePager, null, baselinePager);
+        PullTestHarness.advance(1000);
+
+        final PullTestHarness harness = new PullTestHarness();
+        final int[] refreshes = new int[1];
+        final View[] pages = new View[2];
+        final ViewPager2 pager = createPager(harness, pages, refreshes);
+        new GestureReplayer(recording).replay(pager, null, pager);
+        PullTestHarness.advance(1000);
+        pager.setCurrentItem(0, false);
+        PullTestHarness.idle();
+
+        final ExpressivePullToRefresh first = (ExpressivePullToRefresh) pages[0];
+        final Measurement measured = measure(recording, pager, first, first.getChildAt(0));
+        PullTestHarness.advance(1000);
+
+        assertWithinBudget("horizontalSwipe in ViewPager2", baseline, measured, 0);
+        assertEquals(1, pager.getCurrentItem());
+        assertFalse(first.isRefreshing());
+        assertEquals(0, refreshes[0]);
+    }
+
+    private static void assertRefreshes(String gesture, byte[] recording, Host host) throws IOException {
+        final String message = gesture + " on " + host;
+        final Measurement baseline = measureBaseline(recording, host);
+
+        final PullTestHarness harness = new PullTestHarness();
+        final int[] refreshes = new int[1];
+        final ExpressivePullToRefresh view = createView(harness, refreshes);
+        final View content = createContent(harness.context, host);
+        harness.attach(view, content);
+
+        // Warm-up cycle: inflates the indicator and creates the animator.
+        new GestureReplayer(recording).replay(view, view, content);
+        PullTestHarness.advance(1000);
+        view.setRefreshing(false);
+        PullTestHarness.advance(1000);
+
+        final Measurement measured = measure(recording, view, view, content);
+        PullTestHarness.advance(1000);
+
+        assertWithinBudget(message, baseline, measured, REFRESH_START_BYTES);
+        assertTrue(message, view.isRefreshing());
+        assertEquals(message, 2, refreshes[0]);
+
+        view.setRefreshing(false);
+        PullTestHarness.advance(1000);
+        assertFalse(message, view.isRefreshing());
+        assertIndicatorHidden(message, view);
+    }
+
+    /**
+     * Replays {@code recording} twice into {@code host} content inside a plain FrameLayout
+     * and measures the second replay.
+     */
+    private static Measurement measureBaseline(byte[] recording, Host host) throws IOException {
+        final PullTestHarness harness = new PullTestHarness();
+        final FrameLayout frame = new FrameLayout(harness.context);
+        final View content = createContent(harness.context, host);
+        frame.addView(content, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        harness.activity.setContentView(frame, new ViewGroup.LayoutParams(
+                PullTestHarness.WIDTH, PullTestHarness.HEIGHT));
+        PullTestHarness.layout(frame);
+
+        new GestureReplayer(recording).replay(frame, null, content);
+        PullTestHarness.advance(1000);
+        final Measurement baseline = measure(recording, frame, null, content);
+        PullTestHarness.advance(1000);
+        return baseline;
+    }
+
+    private static Measurement measure(byte[] recording, View touchRoot, ExpressivePullToRefresh view,
+            View target) throws IOException {
+        final GestureReplayer replayer = new GestureReplayer(recording);
+        final Measurement measurement = new Measurement();
+        final long startBytes = AllocationCounter.allocatedBytes();
+        final long startNanos = System.nanoTime();
+        replayer.replay(touchRoot, view, target);
+        measurement.nanos = System.nanoTime() - startNanos;
+        measurement.bytes = AllocationCounter.allocatedBytes() - startBytes;
+        return measurement;
+    }
+
+    private static void assertWithinBudget(String message, Measurement baseline, Measurement measured,
+            long extraBytes) {
+        assertTrue(message + " allocated " + measured.bytes + " bytes, baseline " + baseline.bytes,
+                measured.bytes <= baseline.bytes + extraBytes);
+        assertTrue(message + " took " + measured.nanos + " ns, baseline " + baseline.nanos,
+                measured.nanos <= baseline.nanos * TIME_FACTOR + TIME_SLACK_NANOS);
+    }
+
+    private static final class Measurement {
+        long bytes;
+        long nanos;
+    }
+
+    /**
+     * A two-page ViewPager2 whose pages host a RecyclerView, inside an
+     * {@link ExpressivePullToRefresh} unless {@code refreshes} is null.
+     */
+    private static ViewPager2 createPager(PullTestHarness harness, View[] pages, int[] refreshes) {
+        final ViewPager2 pager = new ViewPager2(harness.context);
+        pager.setAdapter(new RecyclerView.Adapter<RecyclerView.ViewHolder>() {
+            @NonNull
+            @Override
+            public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+                final ViewGroup page = refreshes != null
+                        ? createView(harness, refreshes)
+                        : new FrameLayout(parent.getContext());
+                page.setLayoutParams(new ViewGroup.LayoutParams(
+                        ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+                page.addView(createContent(parent.getContext(), Host.RECYCLER_VIEW), new ViewGroup.LayoutParams(
+                        ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+                return new RecyclerView.ViewHolder(page) { };
+            }
+
+            @Override
+            public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+                pages[position] = holder.itemView;
+            }
+
+            @Override
+            public int getItemCount() {
+                return pages.length;
+            }
+        });
+        harness.activity.setContentView(pager, new ViewGroup.LayoutParams(
+                PullTestHarness.WIDTH, PullTestHarness.HEIGHT));
+        PullTestHarness.layout(pager);
+        return pager;
+    }
+
+    private static ExpressivePullToRefresh createView(PullTestHarness harness, int[] refreshes) {
+        final ExpressivePullToRefresh view = new ExpressivePullToRefresh(harness.context);
+        view.setOnRefreshListener(() -> refreshes[0]++);
+        return view;
+    }
+
+    private static View createContent(Context context, Host host) {
+        switch (host) {
+            case SCROLL_VIEW: {
+                final ScrollView scrollView = new ScrollView(context);
+                final LinearLayout column = new LinearLayout(context);
+                column.setOrientation(LinearLayout.VERTICAL);
+                for (int i = 0; i < ITEMS; i++) {
+                    column.addView(createItem(context, i));
+                }
+                scrollView.addView(column);
+                return scrollView;
+            }
+            case LIST_VIEW: {
+                final String[] items = new String[ITEMS];
+                for (int i = 0; i < ITEMS; i++) {
+                    items[i] = "Item " + i;
+                }
+                final ListView listView = new ListView(context);
+                listView.setAdapter(new ArrayAdapter<>(context, android.R.layout.simple_list_item_1, items));
+                return listView;
+            }
+            case RECYCLER_VIEW: {
+                final RecyclerView recyclerView = new RecyclerView(context);
+                recyclerView.setLayoutManager(new LinearLayoutManager(context));
+                recyclerView.setAdapter(new RecyclerView.Adapter<RecyclerView.ViewHolder>() {
+                    @NonNull
+                    @Override
+                    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+                        return new RecyclerView.ViewHolder(createItem(parent.getContext(), 0)) { };
+                    }
+
+                    @Override
+                    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+                        ((TextView) holder.itemView).setText("Item " + position);
+                    }
+
+                    @Override
+                    public int getItemCount() {
+                        return ITEMS;
+                    }
+                });
+                return recyclerView;
+            }
+            default:
+                throw new IllegalArgumentException(host.name());
+        }
+    }
+
+    private static TextView createItem(Context context, int position) {
+        final TextView item = new TextView(context);
+        item.setText("Item " + position);
+        item.setMinHeight(120);
+        return item;
+    }
+
+    private static void assertIndicatorHidden(String message, ExpressivePullToRefresh view) {
+        final View indicator = PullTestHarness.findIndicator(view);
+        assertTrue(message, indicator == null || indicator.getVisibility() != View.VISIBLE);
+    }
+}
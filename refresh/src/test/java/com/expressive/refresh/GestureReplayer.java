@@ -0,0 +1,197 @@
+package com.expressive.refresh;
+
+import android.os.SystemClock;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * Feeds a stream written by {@link GestureRecorder} back into an {@link ExpressivePullToRefresh}.
+ *
+ * Motion events go through {@link View#dispatchTouchEvent(MotionEvent)} of the view under
+ * test, or of an ancestor such as a ViewPager2, so interception is decided again. Historical
+ * samples are rebuilt with {@link MotionEvent#addBatch(long, MotionEvent.PointerCoords[], int)}
+ * and every sample keeps its recorded event time, so velocity tracking sees the original
+ * speed and batching. Nested scrolling records call the parent callbacks directly, as if
+ * sent by {@code target}. Records are replayed synchronously; callers drive the main looper
+ * (for example a Robolectric {@code ShadowLooper}) to run animations in between.
+ */
+final class GestureReplayer {
+
+    private static final int MAX_POINTERS = 10;
+
+    private final byte[] mData;
+    private final int[] mConsumed = new int[2];
+    private final MotionEvent.PointerProperties[][] mProperties = new MotionEvent.PointerProperties[MAX_POINTERS + 1][];
+    private final MotionEvent.PointerCoords[][] mCoords = new MotionEvent.PointerCoords[MAX_POINTERS + 1][];
+    private int[] mHistoryAges = new int[16];
+    private float[] mHistoryXY = new float[16 * 2];
+
+    GestureReplayer(@NonNull byte[] data) {
+        mData = data;
+        // addBatch() takes one coords entry per pointer, so arrays are kept per pointer count.
+        for (int count = 1; count <= MAX_POINTERS; count++) {
+            mProperties[count] = new MotionEvent.PointerProperties[count];
+            mCoords[count] = new MotionEvent.PointerCoords[count];
+            for (int i = 0; i < count; i++) {
+                mProperties[count][i] = new MotionEvent.PointerProperties();
+                mProperties[count][i].toolType = MotionEvent.TOOL_TYPE_FINGER;
+                mCoords[count][i] = new MotionEvent.PointerCoords();
+                mCoords[count][i].pressure = 1f;
+                mCoords[count][i].size = 1f;
+            }
+        }
+    }
+
+    /**
+     * @return number of records replayed
+     * @throws IOException if the stream is truncated or was not written by {@link GestureRecorder}
+     */
+    int replay(@NonNull ExpressivePullToRefresh view, @NonNull View target) throws IOException {
+        return replay(view, view, target);
+    }
+
+    /**
+     * Replays motion events into {@code touchRoot} and nested scrolling records into
+     * {@code view}, as if sent by {@code target}. {@code view} may be null for streams
+     * without nested scrolling records, for example to replay into a plain layout.
+     */
+    int replay(@NonNull View touchRoot, @Nullable ExpressivePullToRefresh view, @NonNull View target)
+            throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(mData));
+        if (in.readInt() != GestureRecorder.MAGIC || in.readShort() != GestureRecorder.VERSION) {
+            throw new IOException("Not a gesture recording");
+        }
+        long eventTime = SystemClock.uptimeMillis();
+        long downTime = eventTime;
+        int records = 0;
+        while (in.available() > 0) {
+            final byte type = in.readByte();
+            eventTime += in.readInt();
+            if (type != GestureRecorder.RECORD_MOTION && view == null) {
+                throw new IOException("Nested scrolling record without a pull-to-refresh view");
+            }
+            switch (type) {
+                case GestureRecorder.RECORD_MOTION: {
+                    final int action = in.readByte();
+                    final int actionIndex = in.readByte();
+                    if (action == MotionEvent.ACTION_DOWN) {
+                        downTime = eventTime;
+                    }
+                    final MotionEvent ev = readMotionEvent(in, downTime, eventTime,
+                            action | (actionIndex << MotionEvent.ACTION_POINTER_INDEX_SHIFT));
+                    touchRoot.dispatchTouchEvent(ev);
+                    ev.recycle();
+                    break;
+                }
+                case GestureRecorder.RECORD_NESTED_ACCEPT: {
+                    final int axes = in.readByte();
+                    final int nestedType = in.readByte();
+                    if (view.onStartNestedScroll(target, target, axes, nestedType)) {
+                        view.onNestedScrollAccepted(target, target, axes, nestedType);
+                    }
+                    break;
+                }
+                case GestureRecorder.RECORD_NESTED_PRE_SCROLL: {
+                    final int dx = in.readInt();
+                    final int dy = in.readInt();
+                    mConsumed[0] = 0;
+                    mConsumed[1] = 0;
+                    view.onNestedPreScroll(target, dx, dy, mConsumed, in.readByte());
+                    break;
+                }
+                case GestureRecorder.RECORD_NESTED_SCROLL: {
+                    final int dxConsumed = in.readInt();
+                    final int dyConsumed = in.readInt();
+                    final int dxUnconsumed = in.readInt();
+                    final int dyUnconsumed = in.readInt();
+                    mConsumed[0] = 0;
+                    mConsumed[1] = 0;
+                    view.onNestedScroll(target, dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, in.readByte(), mConsumed);
+                    break;
+                }
+                case GestureRecorder.RECORD_NESTED_STOP:
+                    view.onStopNestedScroll(target, in.readByte());
+                    break;
+                case GestureRecorder.RECORD_NESTED_PRE_FLING:
+                    view.onNestedPreFling(target, in.readFloat(), in.readFloat());
+                    break;
+                case GestureRecorder.RECORD_NESTED_FLING:
+                    view.onNestedFling(target, in.readFloat(), in.readFloat(), in.readBoolean());
+                    break;
+                default:
+                    throw new IOException("Unknown record type " + type);
+            }
+            records++;
+        }
+        return records;
+    }
+
+    /**
+     * Reads the rest of a motion record. The event starts at its oldest historical sample,
+     * and the later historical samples and the current one are appended as batches.
+     */
+    private MotionEvent readMotionEvent(DataInputStream in, long downTime, long eventTime, int action)
+            throws IOException {
+        final int pointerCount = in.readByte();
+        if (pointerCount < 1 || pointerCount > MAX_POINTERS) {
+            throw new IOException("Bad pointer count " + pointerCount);
+        }
+        final MotionEvent.PointerProperties[] properties = mProperties[pointerCount];
+        final MotionEvent.PointerCoords[] coords = mCoords[pointerCount];
+        for (int i = 0; i < pointerCount; i++) {
+            properties[i].id = in.readByte();
+        }
+        final int historySize = in.readShort();
+        if (mHistoryAges.length < historySize) {
+            mHistoryAges = new int[historySize];
+        }
+        if (mHistoryXY.length < historySize * pointerCount * 2) {
+            mHistoryXY = new float[historySize * pointerCount * 2];
+        }
+        for (int h = 0; h < historySize; h++) {
+            mHistoryAges[h] = in.readInt();
+            for (int i = 0; i < pointerCount; i++) {
+                mHistoryXY[(h * pointerCount + i) * 2] = in.readFloat();
+                mHistoryXY[(h * pointerCount + i) * 2 + 1] = in.readFloat();
+            }
+        }
+
+        MotionEvent ev = null;
+        for (int h = 0; h < historySize; h++) {
+            for (int i = 0; i < pointerCount; i++) {
+                coords[i].x = mHistoryXY[(h * pointerCount + i) * 2];
+                coords[i].y = mHistoryXY[(h * pointerCount + i) * 2 + 1];
+            }
+            final long sampleTime = eventTime - mHistoryAges[h];
+            if (ev == null) {
+                ev = obtain(downTime, sampleTime, action, pointerCount, properties, coords);
+            } else {
+                ev.addBatch(sampleTime, coords, 0);
+            }
+        }
+        for (int i = 0; i < pointerCount; i++) {
+            coords[i].x = in.readFloat();
+            coords[i].y = in.readFloat();
+        }
+        if (ev == null) {
+            ev = obtain(downTime, eventTime, action, pointerCount, properties, coords);
+        } else {
+            ev.addBatch(eventTime, coords, 0);
+        }
+        return ev;
+    }
+
+    private static MotionEvent obtain(long downTime, long eventTime, int action, int pointerCount,
+            MotionEvent.PointerProperties[] properties, MotionEvent.PointerCoords[] coords) {
+        return MotionEvent.obtain(downTime, eventTime, action, pointerCount, properties, coords,
+                0, 0, 1f, 1f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+    }
+}
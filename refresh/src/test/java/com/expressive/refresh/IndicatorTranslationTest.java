@@ -0,0 +1,118 @@
+package com.expressive.refresh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * A drag only moves the indicator through RenderNode properties: no layout pass on the
+ * indicator, no layout request and no invalidate() on the parent. A drawable indicator
+ * only invalidates the area it covers.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class IndicatorTranslationTest {
+
+    private static final int SAMPLES = 200;
+    private static final int WARM_UP_SAMPLES = 10;
+    private static final int INDICATOR_DIAMETER = 48;
+
+    private PullTestHarness mHarness;
+    private CountingPullToRefresh mView;
+
+    @Before
+    public void setUp() {
+        mHarness = new PullTestHarness();
+        mView = mHarness.attach(new CountingPullToRefresh(mHarness.context));
+    }
+
+    @Test
+    public void dragMovesIndicatorWithoutLayoutOrInvalidate() {
+        // The first samples inflate and lay out the indicator once.
+        final float slop = 100f;
+        PullTestHarness.drag(mView, 100f, 100f + slop, WARM_UP_SAMPLES, 40, false);
+        final View indicator = PullTestHarness.findIndicator(mView);
+        assertNotNull(indicator);
+
+        final int[] indicatorLayouts = new int[1];
+        indicator.addOnLayoutChangeListener((v, l, t, r, b, ol, ot, or, ob) -> indicatorLayouts[0]++);
+        mView.invalidateCount = 0;
+        mView.requestLayoutCount = 0;
+        final float startTranslation = indicator.getTranslationY();
+
+        final long downTime = SystemClock.uptimeMillis();
+        for (int i = 1; i <= SAMPLES; i++) {
+            final float y = 100f + slop + i * 4f;
+            PullTestHarness.dispatch(mView, MotionEvent.obtain(downTime, downTime + 40 + i * 4L,
+                    MotionEvent.ACTION_MOVE, PullTestHarness.WIDTH / 2f, y, 0));
+        }
+
+        assertTrue(indicator.getTranslationY() > startTranslation);
+        assertEquals(0, indicatorLayouts[0]);
+        assertEquals(0, mView.requestLayoutCount);
+        assertEquals(0, mView.invalidateCount);
+    }
+
+    @Test
+    public void drawableDragInvalidatesOnlyTheIndicator() {
+        mView.setIndicatorRenderMode(ExpressivePullToRefresh.INDICATOR_RENDER_DRAWABLE);
+        PullTestHarness.drag(mView, 100f, 200f, WARM_UP_SAMPLES, 40, false);
+        mView.invalidateCount = 0;
+        mView.dirtyRegions = 0;
+        mView.dirty.setEmpty();
+
+        final long downTime = SystemClock.uptimeMillis();
+        for (int i = 1; i <= SAMPLES; i++) {
+            PullTestHarness.dispatch(mView, MotionEvent.obtain(downTime, downTime + 40 + i * 4L,
+                    MotionEvent.ACTION_MOVE, PullTestHarness.WIDTH / 2f, 200f + i * 2f, 0));
+        }
+
+        assertEquals(0, mView.invalidateCount);
+        assertTrue(mView.dirtyRegions > 0);
+        // The 48dp indicator is centered horizontally; rotated, its bounds are at most sqrt(2) wider.
+        final int maxWidth = (int) Math.ceil(INDICATOR_DIAMETER * Math.sqrt(2)) + 2;
+        assertTrue(mView.dirty.width() <= maxWidth);
+        assertTrue(mView.dirty.left >= (PullTestHarness.WIDTH - maxWidth) / 2);
+    }
+
+    static class CountingPullToRefresh extends ExpressivePullToRefresh {
+        int invalidateCount;
+        int requestLayoutCount;
+        int dirtyRegions;
+        final Rect dirty = new Rect();
+
+        CountingPullToRefresh(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void invalidate() {
+            invalidateCount++;
+            super.invalidate();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void invalidate(int l, int t, int r, int b) {
+            dirtyRegions++;
+            dirty.union(l, t, r, b);
+            super.invalidate(l, t, r, b);
+        }
+
+        @Override
+        public void requestLayout() {
+            requestLayoutCount++;
+            super.requestLayout();
+        }
+    }
+}
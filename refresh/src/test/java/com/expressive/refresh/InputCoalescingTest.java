@@ -0,0 +1,110 @@
+package com.expressive.refresh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowChoreographer;
+
+import java.time.Duration;
+
+/**
+ * Compares per-frame work between immediate and coalesced input under a synthetic 240 Hz
+ * touch stream on a 60 Hz display. Work is counted as content offset updates, which in
+ * {@link ExpressivePullToRefresh#CONTENT_TRANSLATION_FOLLOW} mode happen once per applied
+ * offset.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class InputCoalescingTest {
+
+    private static final int INPUT_HZ = 240;
+    private static final long FRAME_MILLIS = 16;
+    private static final long STREAM_MILLIS = 500;
+    private static final float START_Y = 100f;
+    private static final float DISTANCE = 240f;
+
+    @Before
+    public void setUp() {
+        ShadowChoreographer.setFrameDelay(Duration.ofMillis(FRAME_MILLIS));
+    }
+
+    @After
+    public void tearDown() {
+        ShadowChoreographer.setFrameDelay(Duration.ofMillis(1));
+    }
+
+    @Test
+    public void coalescedModeAppliesAtMostOneOffsetPerFrame() {
+        final int samples = (int) (STREAM_MILLIS * INPUT_HZ / 1000);
+        final StreamResult immediate = runStream(false, samples);
+        final StreamResult coalesced = runStream(true, samples);
+
+        final long frames = STREAM_MILLIS / FRAME_MILLIS;
+        assertTrue("immediate updates: " + immediate.updates, immediate.updates > frames * 2);
+        assertTrue("coalesced updates: " + coalesced.updates, coalesced.updates <= frames + 2);
+        assertEquals(immediate.finalTranslation, coalesced.finalTranslation, 0f);
+        assertEquals(immediate.refreshing, coalesced.refreshing);
+    }
+
+    private static StreamResult runStream(boolean coalesce, int samples) {
+        final PullTestHarness harness = new PullTestHarness();
+        final CountingContent content = new CountingContent(harness.context);
+        final ExpressivePullToRefresh view = harness.attach(new ExpressivePullToRefresh(harness.context), content);
+        view.setContentTranslationMode(ExpressivePullToRefresh.CONTENT_TRANSLATION_FOLLOW);
+        view.setInputCoalescingEnabled(coalesce);
+
+        final float x = PullTestHarness.WIDTH / 2f;
+        final long downTime = SystemClock.uptimeMillis();
+        PullTestHarness.dispatch(view, MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, x, START_Y, 0));
+        content.updates = 0;
+        long elapsed = 0;
+        for (int i = 1; i <= samples; i++) {
+            final long eventElapsed = i * 1000L / INPUT_HZ;
+            PullTestHarness.advance(eventElapsed - elapsed);
+            elapsed = eventElapsed;
+            final float y = START_Y + DISTANCE * i / samples;
+            PullTestHarness.dispatch(view, MotionEvent.obtain(downTime, downTime + elapsed,
+                    MotionEvent.ACTION_MOVE, x, y, 0));
+        }
+        // Let the last pending frame run before reading the result.
+        PullTestHarness.advance(FRAME_MILLIS * 2);
+
+        final StreamResult result = new StreamResult();
+        result.updates = content.updates;
+        result.finalTranslation = content.getTranslationY();
+
+        PullTestHarness.dispatch(view, MotionEvent.obtain(downTime, downTime + elapsed,
+                MotionEvent.ACTION_UP, x, START_Y + DISTANCE, 0));
+        result.refreshing = view.isRefreshing();
+        return result;
+    }
+
+    private static final class StreamResult {
+        int updates;
+        float finalTranslation;
+        boolean refreshing;
+    }
+
+    private static final class CountingContent extends View {
+        int updates;
+
+        CountingContent(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void setTranslationY(float translationY) {
+            updates++;
+            super.setTranslationY(translationY);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.expressive.refresh;
+
+import static org.junit.Assert.assertEquals;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.util.ReflectionHelpers;
+
+/**
+ * Load-more at the end of a list fires once per page: a page that appends nothing does not
+ * fire it again on later scroll callbacks, and one that appends items does.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class LoadMoreTest {
+
+    private static final int ITEM_HEIGHT = 100;
+
+    private ExpressivePullToRefresh mView;
+    private ItemAdapter mAdapter;
+    private int mLoads;
+
+    @Before
+    public void setUp() {
+        final PullTestHarness harness = new PullTestHarness();
+        final RecyclerView list = new RecyclerView(harness.context);
+        list.setLayoutManager(new LinearLayoutManager(harness.context));
+        mAdapter = new ItemAdapter(5);
+        list.setAdapter(mAdapter);
+        mView = harness.attach(new ExpressivePullToRefresh(harness.context), list);
+        mView.setOnLoadMoreListener(() -> mLoads++);
+    }
+
+    @Test
+    public void emptyPageDoesNotRefireUntilItemsAreAdded() {
+        dispatchScrollChanged();
+        assertEquals(1, mLoads);
+
+        // The page came back empty.
+        mView.setLoadingMore(false);
+        for (int i = 0; i < 10; i++) {
+            dispatchScrollChanged();
+        }
+        assertEquals(1, mLoads);
+
+        mAdapter.append(3);
+        PullTestHarness.layout(mView);
+        dispatchScrollChanged();
+        assertEquals(2, mLoads);
+    }
+
+    @Test
+    public void resettingTheListenerClearsTheLatch() {
+        dispatchScrollChanged();
+        mView.setLoadingMore(false);
+        mView.setOnLoadMoreListener(() -> mLoads++);
+        dispatchScrollChanged();
+        assertEquals(2, mLoads);
+    }
+
+    private void dispatchScrollChanged() {
+        ReflectionHelpers.callInstanceMethod(mView.getViewTreeObserver(), "dispatchOnScrollChanged");
+    }
+
+    private static final class ItemAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        private int mCount;
+
+        ItemAdapter(int count) {
+            mCount = count;
+        }
+
+        void append(int count) {
+            mCount += count;
+            notifyItemRangeInserted(mCount - count, count);
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            final View item = new View(parent.getContext());
+            item.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ITEM_HEIGHT));
+            return new RecyclerView.ViewHolder(item) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return mCount;
+        }
+    }
+}
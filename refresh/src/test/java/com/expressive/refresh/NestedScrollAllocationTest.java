@@ -0,0 +1,98 @@
+package com.expressive.refresh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.view.View;
+
+import androidx.core.view.ViewCompat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Drives thousands of nested scroll, pre-scroll and fling callbacks through the view, the
+ * way a scrolling child would, and fails if the steady state allocates anything.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class NestedScrollAllocationTest {
+
+    private static final int EVENTS = 5000;
+    private static final int STEP = 6;
+
+    private ExpressivePullToRefresh mView;
+    private View mChild;
+    private final int[] mConsumed = new int[2];
+
+    @Before
+    public void setUp() {
+        final PullTestHarness harness = new PullTestHarness();
+        mChild = new View(harness.context);
+        mView = harness.attach(new ExpressivePullToRefresh(harness.context), mChild);
+        AllocationCounter.assumeSupported();
+        AllocationCounter.allocatedBytes();
+    }
+
+    @Test
+    public void touchScrollAndPreScrollDoNotAllocate() {
+        startScroll(ViewCompat.TYPE_TOUCH);
+        // Warm-up: creates the indicator, nested scrolling helpers and their buffers.
+        pullAndPushBack(EVENTS);
+
+        final long before = AllocationCounter.allocatedBytes();
+        pullAndPushBack(EVENTS);
+        final long allocated = AllocationCounter.allocatedBytes() - before;
+
+        assertEquals("bytes allocated by " + EVENTS * 3 + " nested scroll events", 0, allocated);
+        mView.onStopNestedScroll(mChild, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Test
+    public void flingDoesNotAllocate() {
+        startScroll(ViewCompat.TYPE_NON_TOUCH);
+        // Warm-up: the first fling scroll past the top starts the bounce once.
+        fling(EVENTS);
+        assertTrue(mView.getNestedScrollAxes() != ViewCompat.SCROLL_AXIS_NONE);
+
+        final long before = AllocationCounter.allocatedBytes();
+        fling(EVENTS);
+        final long allocated = AllocationCounter.allocatedBytes() - before;
+
+        assertEquals("bytes allocated by " + EVENTS * 4 + " nested fling events", 0, allocated);
+        mView.onStopNestedScroll(mChild, ViewCompat.TYPE_NON_TOUCH);
+    }
+
+    private void startScroll(int type) {
+        assertTrue(mView.onStartNestedScroll(mChild, mChild, ViewCompat.SCROLL_AXIS_VERTICAL, type));
+        mView.onNestedScrollAccepted(mChild, mChild, ViewCompat.SCROLL_AXIS_VERTICAL, type);
+    }
+
+    /**
+     * Pulls down through both onNestedScroll() overloads, then scrolls back up through
+     * onNestedPreScroll(), so the indicator moves on every event but the pull stays bounded.
+     */
+    private void pullAndPushBack(int count) {
+        for (int i = 0; i < count; i++) {
+            mView.onNestedScroll(mChild, 0, 0, 0, -STEP, ViewCompat.TYPE_TOUCH);
+            mConsumed[0] = 0;
+            mConsumed[1] = 0;
+            mView.onNestedScroll(mChild, 0, 0, 0, -STEP, ViewCompat.TYPE_TOUCH, mConsumed);
+            mConsumed[0] = 0;
+            mConsumed[1] = 0;
+            mView.onNestedPreScroll(mChild, 0, 2 * STEP, mConsumed, ViewCompat.TYPE_TOUCH);
+        }
+    }
+
+    private void fling(int count) {
+        for (int i = 0; i < count; i++) {
+            mView.onNestedPreFling(mChild, 0, -4000f);
+            mView.onNestedFling(mChild, 0, -4000f, false);
+            mView.onNestedScroll(mChild, 0, 0, 0, -STEP, ViewCompat.TYPE_NON_TOUCH);
+            mConsumed[0] = 0;
+            mConsumed[1] = 0;
+            mView.onNestedScroll(mChild, 0, 0, 0, -STEP, ViewCompat.TYPE_NON_TOUCH, mConsumed);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.expressive.refresh;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.ContextThemeWrapper;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.google.android.material.loadingindicator.LoadingIndicator;
+
+import org.robolectric.Robolectric;
+
+import java.time.Duration;
+
+/**
+ * Hosts an {@link ExpressivePullToRefresh} with a plain, non-scrollable content view in an
+ * attached activity window and scripts input against it.
+ */
+final class PullTestHarness {
+
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 1920;
+
+    final Activity activity;
+    final Context context;
+
+    PullTestHarness() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        context = new ContextThemeWrapper(activity,
+                com.google.android.material.R.style.Theme_Material3_DayNight_NoActionBar);
+    }
+
+    /**
+     * Adds a content view, attaches {@code view} to the window and runs the first layout.
+     */
+    <T extends ExpressivePullToRefresh> T attach(T view) {
+        return attach(view, new View(context));
+    }
+
+    /**
+     * Adds {@code content} as the scrolling target, attaches {@code view} to the window and
+     * runs the first layout.
+     */
+    <T extends ExpressivePullToRefresh> T attach(T view, View content) {
+        view.addView(content, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        activity.setContentView(view, new ViewGroup.LayoutParams(WIDTH, HEIGHT));
+        layout(view);
+        return view;
+    }
+
+    static void layout(View view) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+        idle();
+    }
+
+    static void idle() {
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    /**
+     * Runs queued frames and animations for {@code millis} of simulated time.
+     */
+    static void advance(long millis) {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(millis));
+    }
+
+    /**
+     * Touches down at {@code fromY}, moves to {@code toY} in {@code samples} evenly spaced
+     * moves over {@code durationMillis}, and lifts the finger if {@code release} is set.
+     */
+    static void drag(View view, float fromY, float toY, int samples, long durationMillis, boolean release) {
+        final long downTime = SystemClock.uptimeMillis();
+        final float x = WIDTH / 2f;
+        dispatch(view, MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, x, fromY, 0));
+        for (int i = 1; i <= samples; i++) {
+            final long eventTime = downTime + durationMillis * i / samples;
+            final float y = fromY + (toY - fromY) * i / samples;
+            dispatch(view, MotionEvent.obtain(downTime, eventTime, MotionEvent.ACTION_MOVE, x, y, 0));
+        }
+        if (release) {
+            final long upTime = downTime + durationMillis;
+            dispatch(view, MotionEvent.obtain(downTime, upTime, MotionEvent.ACTION_UP, x, toY, 0));
+        }
+    }
+
+    static void dispatch(View view, MotionEvent event) {
+        view.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    static View findIndicator(ExpressivePullToRefresh view) {
+        for (int i = 0; i < view.getChildCount(); i++) {
+            final View child = view.getChildAt(i);
+            if (child instanceof LoadingIndicator) {
+                return child;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,59 @@
+package com.expressive.refresh;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * The process-wide {@link QualityMonitor} only holds views while they are attached, so it
+ * never keeps a detached view, or its activity, alive.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QualityMonitorTest {
+
+    private PullTestHarness mHarness;
+    private ExpressivePullToRefresh mView;
+
+    @Before
+    public void setUp() {
+        mHarness = new PullTestHarness();
+        mView = mHarness.attach(new ExpressivePullToRefresh(mHarness.context));
+        mView.setAdaptiveQualityEnabled(true);
+    }
+
+    @Test
+    public void detachedViewIsUnregistered() {
+        final QualityMonitor monitor = QualityMonitor.get(mHarness.context);
+        assertTrue(monitor.isRegistered(mView));
+
+        ((ViewGroup) mView.getParent()).removeView(mView);
+        PullTestHarness.idle();
+
+        assertFalse(mView.isAttachedToWindow());
+        assertFalse(monitor.isRegistered(mView));
+    }
+
+    @Test
+    public void reattachedViewIsRegisteredAgain() {
+        final QualityMonitor monitor = QualityMonitor.get(mHarness.context);
+        final ViewGroup parent = (ViewGroup) mView.getParent();
+        parent.removeView(mView);
+        parent.addView(mView);
+        PullTestHarness.idle();
+
+        assertTrue(monitor.isRegistered(mView));
+    }
+
+    @Test
+    public void disablingAdaptiveQualityUnregisters() {
+        mView.setAdaptiveQualityEnabled(false);
+
+        assertFalse(QualityMonitor.get(mHarness.context).isRegistered(mView));
+    }
+}